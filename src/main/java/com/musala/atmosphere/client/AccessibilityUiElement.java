@@ -80,7 +80,14 @@ public class AccessibilityUiElement extends UiElement {
 
     @Override
     public boolean revalidate() {
-        return elementUtils.revalidate(propertiesContainer);
+        long actionEpoch = communicator.getActionEpoch();
+        boolean isPresent = elementUtils.revalidate(propertiesContainer);
+        // an action sent meanwhile could have changed the screen again
+        if (isPresent && communicator.getActionEpoch() == actionEpoch) {
+            confirmPresence(actionEpoch, System.currentTimeMillis());
+        }
+
+        return isPresent;
     }
 
     @Override
@@ -0,0 +1,248 @@
+// This file is part of the ATMOSPHERE mobile testing framework.
+// Copyright (C) 2016 MusalaSoft
+//
+// ATMOSPHERE is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// ATMOSPHERE is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with ATMOSPHERE.  If not, see <http://www.gnu.org/licenses/>.
+
+package com.musala.atmosphere.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import com.musala.atmosphere.client.device.HardwareButton;
+import com.musala.atmosphere.commons.RoutingAction;
+import com.musala.atmosphere.commons.beans.SwipeDirection;
+import com.musala.atmosphere.commons.exceptions.CommandFailedException;
+import com.musala.atmosphere.commons.geometry.Point;
+
+/**
+ * Collects several device actions and executes them one after another. The actions are executed strictly in the order
+ * they were added: each action is sent only after the response of the previous one is received, so a batch of N
+ * actions takes N round trips to the device, as many as the same actions executed one by one. The Agent cannot receive
+ * several actions in one request. The batch only lets the calling thread wait for all actions once, or not at all with
+ * {@link #executeAsync()}.
+ * <p>
+ * An action that fails on the device has a <code>null</code> result and the batch continues with the next action. If
+ * an action cannot be executed at all (for example the device was released or the Server rejected the request), the
+ * remaining actions are not sent and the batch fails with that exception.
+ * </p>
+ *
+ * @author dimcho.nedev
+ *
+ */
+public class ActionBatch {
+    private final DeviceCommunicator communicator;
+
+    private final List<BatchedAction> actions = new ArrayList<>();
+
+    ActionBatch(DeviceCommunicator communicator) {
+        this.communicator = communicator;
+    }
+
+    /**
+     * Adds an arbitrary {@link RoutingAction action} to this batch.
+     *
+     * @param action
+     *        - a {@link RoutingAction} instance that specifies the action to be invoked
+     * @param args
+     *        - the action parameters (if required)
+     * @return this batch
+     */
+    public ActionBatch add(RoutingAction action, Object... args) {
+        actions.add(new BatchedAction(action, args));
+        return this;
+    }
+
+    /**
+     * Adds a simple tap on the screen at a specified location point.
+     *
+     * @param tapPoint
+     *        - {@link Point Point} on the screen to tap on.
+     * @return this batch
+     */
+    public ActionBatch tap(Point tapPoint) {
+        return add(RoutingAction.GESTURE_TAP, tapPoint);
+    }
+
+    /**
+     * Adds a double tap on the specified point.
+     *
+     * @param point
+     *        - the point to be tapped
+     * @return this batch
+     */
+    public ActionBatch doubleTap(Point point) {
+        return add(RoutingAction.GESTURE_DOUBLE_TAP, point);
+    }
+
+    /**
+     * Adds a long press on the specified point with the {@link Device#LONG_PRESS_DEFAULT_TIMEOUT default timeout}.
+     *
+     * @param pressPoint
+     *        - {@link Point point} on the screen where the long press should be executed.
+     * @return this batch
+     */
+    public ActionBatch longPress(Point pressPoint) {
+        return add(RoutingAction.GESTURE_LONG_PRESS, pressPoint, Device.LONG_PRESS_DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Adds a swipe from a point in the given direction.
+     *
+     * @param point
+     *        - the starting point.
+     * @param swipeDirection
+     *        - a direction of the swipe action.
+     * @return this batch
+     */
+    public ActionBatch swipe(Point point, SwipeDirection swipeDirection) {
+        return add(RoutingAction.GESTURE_SWIPE, point, swipeDirection);
+    }
+
+    /**
+     * Adds a text input in the element on focus.
+     *
+     * @param text
+     *        - text to be input.
+     * @return this batch
+     */
+    public ActionBatch inputText(String text) {
+        return inputText(text, 0);
+    }
+
+    /**
+     * Adds a text input in the element on focus with an interval between typing each symbol.
+     *
+     * @param text
+     *        - text to be input.
+     * @param interval
+     *        - time interval in milliseconds between typing each symbol.
+     * @return this batch
+     */
+    public ActionBatch inputText(String text, long interval) {
+        return add(RoutingAction.IME_INPUT_TEXT, text, interval);
+    }
+
+    /**
+     * Adds a hardware button press.
+     *
+     * @param button
+     *        - {@link HardwareButton HardwareButton} to be pressed.
+     * @return this batch
+     */
+    public ActionBatch pressButton(HardwareButton button) {
+        return pressButton(button.getKeycode());
+    }
+
+    /**
+     * Adds a hardware button press.
+     *
+     * @param keyCode
+     *        - button key code as specified by the Android KeyEvent KEYCODE_ constants.
+     * @return this batch
+     */
+    public ActionBatch pressButton(int keyCode) {
+        return add(RoutingAction.PRESS_HARDWARE_BUTTON, keyCode);
+    }
+
+    /**
+     * Adds a command to be executed in the shell of the device.
+     *
+     * @param shellCommand
+     *        - String, representing the command for execution.
+     * @return this batch
+     */
+    public ActionBatch executeShellCommand(String shellCommand) {
+        return add(RoutingAction.EXECUTE_SHELL_COMMAND, shellCommand);
+    }
+
+    /**
+     * Gets the number of the actions in this batch.
+     *
+     * @return the number of the batched actions
+     */
+    public int size() {
+        return actions.size();
+    }
+
+    /**
+     * Executes all batched actions one after another and waits for their results.
+     *
+     * @return a list with the results of the actions in the order the actions were added. An action that failed on the
+     *         device has a <code>null</code> result.
+     */
+    public List<Object> execute() {
+        try {
+            return executeAsync().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw e;
+        }
+    }
+
+    /**
+     * Executes all batched actions one after another without blocking the calling thread. Each action is sent only
+     * after the previous one has completed.
+     *
+     * @return a {@link CompletableFuture future} that is completed with a list of the results of the actions in the
+     *         order the actions were added, or completed exceptionally if an action could not be executed
+     */
+    public CompletableFuture<List<Object>> executeAsync() {
+        final List<Object> results = new ArrayList<>(actions.size());
+        CompletableFuture<Object> previousAction = CompletableFuture.completedFuture(null);
+
+        for (final BatchedAction batchedAction : actions) {
+            previousAction = previousAction.thenCompose(previousResult -> sendAction(batchedAction))
+                                           .thenApply(result -> {
+                                               results.add(result);
+                                               return result;
+                                           });
+        }
+
+        return previousAction.thenApply(lastResult -> results);
+    }
+
+    /**
+     * Sends the given action, completing with a <code>null</code> result if the action fails on the device.
+     */
+    private CompletableFuture<Object> sendAction(BatchedAction batchedAction) {
+        return communicator.sendActionAsync(batchedAction.action, batchedAction.args).handle((result, throwable) -> {
+            if (throwable == null) {
+                return result;
+            }
+
+            Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+            if (cause instanceof CommandFailedException) {
+                return null;
+            }
+
+            throw new CompletionException(cause);
+        });
+    }
+
+    private static class BatchedAction {
+        private final RoutingAction action;
+
+        private final Object[] args;
+
+        BatchedAction(RoutingAction action, Object[] args) {
+            this.action = action;
+            this.args = args;
+        }
+    }
+}
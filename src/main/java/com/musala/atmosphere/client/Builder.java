@@ -16,12 +16,15 @@
 
 package com.musala.atmosphere.client;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import org.apache.log4j.Logger;
 
@@ -63,7 +66,7 @@ public class Builder {
 
     private LogcatAnnotationProperties logcatAnnotationProperties;
 
-    private ClientDispatcher dispatcher = ClientDispatcher.getInstance();
+    private ClientDispatcher dispatcher;
 
     /**
      * Initializes {@link Builder} and connects to Server through given {@link ServerConnectionHandler}.
@@ -72,9 +75,23 @@ public class Builder {
      *        - the given {@link ServerConnectionHandler}.
      */
     private Builder(ServerConnectionProperties serverConnectionProperties) {
+        this(ClientDispatcher.getInstance(), serverConnectionProperties);
+
         // establish an WebSocket connection
         dispatcher.connectToServer(serverConnectionProperties);
+    }
 
+    /**
+     * Initializes {@link Builder} that communicates with the Server through the given {@link ClientDispatcher}, without
+     * connecting it.
+     *
+     * @param dispatcher
+     *        - the dispatcher used for the communication with the Server
+     * @param serverConnectionProperties
+     *        - the properties of the Server connection
+     */
+    Builder(ClientDispatcher dispatcher, ServerConnectionProperties serverConnectionProperties) {
+        this.dispatcher = dispatcher;
         this.serverConnectionProperties = serverConnectionProperties;
         this.screenRecordingproperties = new ScreenRecordingAnnotationProperties();
         this.logcatAnnotationProperties = new LogcatAnnotationProperties();
@@ -142,30 +159,108 @@ public class Builder {
             DeviceAllocationInformation deviceDescriptor = dispatcher.getDeviceDescriptor(deviceSelector,
                                                                                           allocateDeviceRetryCount);
 
-            final String deviceId = deviceDescriptor.getDeviceId();
-            LOGGER.info(String.format("Fetched device with ID: %s .", deviceId));
+            return createDevice(deviceDescriptor);
+        } catch (NoAvailableDeviceFoundException e) {
+            String message = "No devices matching the requested parameters were found";
+            LOGGER.error(message, e);
+            throw new NoAvailableDeviceFoundException(message, e);
+        }
+    }
 
-            long passkey = deviceDescriptor.getProxyPasskey();
+    /**
+     * Requests a {@link Device Device} instance with the given {@link DeviceSelector device characteristics} without
+     * blocking the calling thread.
+     *
+     * @param deviceSelector
+     *        - required {@link DeviceSelector parameters} needed to construct new {@link Device Device} instance.
+     * @return a {@link CompletableFuture future} that is completed with a {@link Device Device} instance with the
+     *         given device parameters, or exceptionally with a {@link NoAvailableDeviceFoundException} if no such
+     *         device is available in time
+     */
+    public CompletableFuture<Device> getDeviceAsync(DeviceSelector deviceSelector) {
+        return createDeviceAsync(dispatcher.getDeviceDescriptorAsync(deviceSelector));
+    }
 
-            Device device = new Device(passkey, deviceId);
-            deviceToDescriptor.put(device, deviceDescriptor);
+    /**
+     * Requests a {@link Device Device} instance with the given {@link DeviceSelector device characteristics} without
+     * blocking the calling thread, waiting at most the given time for an available device.
+     *
+     * @param deviceSelector
+     *        - required {@link DeviceSelector parameters} needed to construct new {@link Device Device} instance.
+     * @param maxWaitTime
+     *        - maximum wait time in milliseconds for available device
+     * @return a {@link CompletableFuture future} that is completed with a {@link Device Device} instance with the
+     *         given device parameters, or exceptionally with a {@link NoAvailableDeviceFoundException} if no such
+     *         device is available in time
+     */
+    public CompletableFuture<Device> getDeviceAsync(DeviceSelector deviceSelector, int maxWaitTime) {
+        return createDeviceAsync(dispatcher.getDeviceDescriptorAsync(deviceSelector, maxWaitTime));
+    }
 
-            if (this.screenRecordingproperties.isEnabled()) {
-                int duration = this.screenRecordingproperties.getDuration();
-                device.startScreenRecording(duration, false);
+    /**
+     * Requests concurrently a {@link Device Device} instance for each of the given {@link DeviceSelector device
+     * selectors}. All allocation requests are in flight at the same time, so the total wait is about the wait for the
+     * slowest single allocation.
+     *
+     * @param deviceSelectors
+     *        - required {@link DeviceSelector parameters} for each of the devices
+     * @return a list with a {@link CompletableFuture future} {@link Device Device} for each selector, in the order of
+     *         the selectors
+     */
+    public List<CompletableFuture<Device>> getDevicesAsync(List<DeviceSelector> deviceSelectors) {
+        List<CompletableFuture<Device>> devices = new ArrayList<>(deviceSelectors.size());
+        for (DeviceSelector deviceSelector : deviceSelectors) {
+            devices.add(getDeviceAsync(deviceSelector));
+        }
+
+        return devices;
+    }
+
+    /**
+     * Creates a {@link Device Device} when the given allocation completes, failing the same way as
+     * {@link #getDevice(DeviceSelector)} when no device is available.
+     */
+    private CompletableFuture<Device> createDeviceAsync(CompletableFuture<DeviceAllocationInformation> allocation) {
+        return allocation.handle((deviceDescriptor, throwable) -> {
+            if (throwable == null) {
+                return createDevice(deviceDescriptor);
             }
-            if (this.logcatAnnotationProperties.isEnabled()) {
-                device.clearLogcat();
+
+            Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+            if (cause instanceof NoAvailableDeviceFoundException) {
+                String message = "No devices matching the requested parameters were found";
+                LOGGER.error(message, cause);
+                throw new NoAvailableDeviceFoundException(message, (NoAvailableDeviceFoundException) cause);
             }
 
-            ConfigurationPropertiesLoader.loadImplicitWait();
+            throw new CompletionException(cause);
+        });
+    }
 
-            return device;
-        } catch (NoAvailableDeviceFoundException e) {
-            String message = "No devices matching the requested parameters were found";
-            LOGGER.error(message, e);
-            throw new NoAvailableDeviceFoundException(message, e);
+    /**
+     * Creates a {@link Device Device} for the given allocation and prepares it according to the annotations of the
+     * test class.
+     */
+    private Device createDevice(DeviceAllocationInformation deviceDescriptor) {
+        final String deviceId = deviceDescriptor.getDeviceId();
+        LOGGER.info(String.format("Fetched device with ID: %s .", deviceId));
+
+        long passkey = deviceDescriptor.getProxyPasskey();
+
+        Device device = new Device(passkey, deviceId);
+        deviceToDescriptor.put(device, deviceDescriptor);
+
+        if (this.screenRecordingproperties.isEnabled()) {
+            int duration = this.screenRecordingproperties.getDuration();
+            device.startScreenRecording(duration, false);
         }
+        if (this.logcatAnnotationProperties.isEnabled()) {
+            device.clearLogcat();
+        }
+
+        ConfigurationPropertiesLoader.loadImplicitWait();
+
+        return device;
     }
 
     /**
@@ -183,6 +278,18 @@ public class Builder {
         return getDevice(deviceSelector);
     }
 
+    /**
+     * Gets a {@link DeviceGroup group} of devices, allocated concurrently, one for each of the given
+     * {@link DeviceSelector device selectors}.
+     *
+     * @param deviceSelectors
+     *        - a {@link DeviceSelector selector} for each device in the group
+     * @return a {@link DeviceGroup} with the allocated devices
+     */
+    public DeviceGroup getDeviceGroup(List<DeviceSelector> deviceSelectors) {
+        return new DeviceGroup(this, deviceSelectors);
+    }
+
     /**
      * Gets list with serial numbers and models of all available devices.
      *
@@ -0,0 +1,134 @@
+// This file is part of the ATMOSPHERE mobile testing framework.
+// Copyright (C) 2016 MusalaSoft
+//
+// ATMOSPHERE is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// ATMOSPHERE is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with ATMOSPHERE.  If not, see <http://www.gnu.org/licenses/>.
+
+package com.musala.atmosphere.client;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Base64;
+
+/**
+ * Writes the results of device actions (logs, UI dumps, etc.) to local files through a {@link FileChannel}. Encoded
+ * and text results are converted in fixed size chunks, so no further copy of the whole result is made in memory.
+ *
+ * @author dimcho.nedev
+ *
+ */
+final class ChunkedFileWriter {
+    /**
+     * The count of Base64 characters decoded at once. It is a multiple of 4, so every chunk decodes to whole bytes.
+     */
+    static final int BASE64_CHUNK_LENGTH = 64 * 1024;
+
+    /**
+     * The size in bytes of the buffer used for encoding text.
+     */
+    static final int TEXT_CHUNK_SIZE = 64 * 1024;
+
+    private ChunkedFileWriter() {
+    }
+
+    /**
+     * Decodes the given Base64 string and writes the decoded bytes to the given file.
+     *
+     * @param path
+     *        - the path to the file
+     * @param base64
+     *        - the Base64 encoded data
+     * @throws IOException
+     *         if writing to the file failed
+     */
+    static void writeBase64(Path path, String base64) throws IOException {
+        Base64.Decoder decoder = Base64.getDecoder();
+        byte[] encodedChunk = new byte[Math.min(BASE64_CHUNK_LENGTH, base64.length())];
+        byte[] decodedChunk = new byte[encodedChunk.length / 4 * 3];
+
+        try (FileChannel channel = openChannel(path)) {
+            for (int start = 0; start < base64.length(); start += BASE64_CHUNK_LENGTH) {
+                int length = Math.min(BASE64_CHUNK_LENGTH, base64.length() - start);
+                if (length != encodedChunk.length) {
+                    // only the last chunk can be shorter
+                    encodedChunk = new byte[length];
+                }
+
+                for (int i = 0; i < length; i++) {
+                    encodedChunk[i] = (byte) base64.charAt(start + i);
+                }
+
+                int decodedLength = decoder.decode(encodedChunk, decodedChunk);
+                writeFully(channel, ByteBuffer.wrap(decodedChunk, 0, decodedLength));
+            }
+        }
+    }
+
+    /**
+     * Writes the given text to the given file in UTF-8 encoding.
+     *
+     * @param path
+     *        - the path to the file
+     * @param text
+     *        - the text to be written
+     * @throws IOException
+     *         if writing to the file failed
+     */
+    static void writeText(Path path, String text) throws IOException {
+        CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                                                       .onMalformedInput(CodingErrorAction.REPLACE)
+                                                       .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        CharBuffer input = CharBuffer.wrap(text);
+        ByteBuffer output = ByteBuffer.allocate(TEXT_CHUNK_SIZE);
+
+        try (FileChannel channel = openChannel(path)) {
+            CoderResult result;
+            do {
+                result = encoder.encode(input, output, true);
+                writeChunk(channel, output);
+            } while (result.isOverflow());
+
+            while (encoder.flush(output).isOverflow()) {
+                writeChunk(channel, output);
+            }
+            writeChunk(channel, output);
+        }
+    }
+
+    private static FileChannel openChannel(Path path) throws IOException {
+        return FileChannel.open(path,
+                                StandardOpenOption.CREATE,
+                                StandardOpenOption.TRUNCATE_EXISTING,
+                                StandardOpenOption.WRITE);
+    }
+
+    private static void writeChunk(FileChannel channel, ByteBuffer chunk) throws IOException {
+        chunk.flip();
+        writeFully(channel, chunk);
+        chunk.clear();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer data) throws IOException {
+        while (data.hasRemaining()) {
+            channel.write(data);
+        }
+    }
+}
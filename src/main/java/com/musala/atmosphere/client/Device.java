@@ -17,20 +17,23 @@
 package com.musala.atmosphere.client;
 
 import java.awt.image.BufferedImage;
-import java.io.BufferedWriter;
 import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
 import java.util.Base64;
-import java.util.List;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import javax.imageio.ImageIO;
 
@@ -43,6 +46,7 @@ import com.musala.atmosphere.client.exceptions.GettingScreenshotFailedException;
 import com.musala.atmosphere.client.util.ClientConstants;
 import com.musala.atmosphere.client.util.ConfigurationPropertiesLoader;
 import com.musala.atmosphere.client.util.LogcatAnnotationProperties;
+import com.musala.atmosphere.client.util.PostActionWaitPolicy;
 import com.musala.atmosphere.commons.ConnectionType;
 import com.musala.atmosphere.commons.DeviceInformation;
 import com.musala.atmosphere.commons.PowerProperties;
@@ -64,7 +68,6 @@ import com.musala.atmosphere.commons.gesture.Gesture;
 import com.musala.atmosphere.commons.util.GeoLocation;
 import com.musala.atmosphere.commons.util.IntentBuilder;
 import com.musala.atmosphere.commons.util.IntentBuilder.IntentAction;
-import com.musala.atmosphere.commons.util.Pair;
 
 /**
  * Android device representing class.
@@ -73,8 +76,6 @@ import com.musala.atmosphere.commons.util.Pair;
  *
  */
 public class Device {
-    private static final int MAX_BUFFER_SIZE = 8092; // 8K
-
     private static final Logger LOGGER = Logger.getLogger(Device.class.getCanonicalName());
 
     private static final String ATMOSPHERE_SERVICE_PACKAGE = "com.musala.atmosphere.service";
@@ -93,7 +94,9 @@ public class Device {
 
     private final DeviceCommunicator communicator;
 
-    private boolean isLogcatEnabled = true;
+    private volatile LogcatStreamer logcatStreamer;
+
+    private final LogcatIndex logcatIndex = new LogcatIndex();
 
     private String screenRecordUploadDiectoryName;
 
@@ -101,6 +104,8 @@ public class Device {
 
     private Screen activeScreen;
 
+    private final UiChangeMonitor uiChangeMonitor;
+
     /**
      * Constructor that creates a usable Device object by a given {@link DeviceCommunicator device communicator}.
      *
@@ -108,6 +113,7 @@ public class Device {
      */
     Device(DeviceCommunicator deviceCommunicator) {
         this.communicator = deviceCommunicator;
+        this.uiChangeMonitor = new UiChangeMonitor(deviceCommunicator);
     }
 
     /**
@@ -116,7 +122,7 @@ public class Device {
      * @param deviceCommunicator
      */
     Device(Long devicePasskey, String deviceId) {
-        this.communicator = new DeviceCommunicator(devicePasskey, deviceId);
+        this(new DeviceCommunicator(devicePasskey, deviceId));
     }
 
     /**
@@ -175,6 +181,19 @@ public class Device {
         return result;
     }
 
+    /**
+     * Executes a command in the shell of this device without blocking the calling thread.
+     *
+     * @param shellCommand
+     *        - String, representing the command for execution.
+     * @return a {@link CompletableFuture future} that is completed with the output of this device console, after the
+     *         command is executed, or exceptionally with the {@link CommandFailedException} if the execution fails.
+     */
+    public CompletableFuture<String> executeShellCommandAsync(String shellCommand) {
+        return communicator.sendActionAsync(RoutingAction.EXECUTE_SHELL_COMMAND, shellCommand)
+                           .thenApply(result -> result instanceof String ? (String) result : null);
+    }
+
     /**
      * Executes a command in the shell of this device in a new thread.
      *
@@ -208,7 +227,7 @@ public class Device {
         // A string that will be used to tell which step of installation was
         // reached
         String currentInstallationStepDescription = null;
-        FileInputStream fileReaderFromApk = null;
+        FileChannel apkChannel = null;
         try {
             currentInstallationStepDescription = "Create file for storing the apk";
             LOGGER.info(currentInstallationStepDescription);
@@ -219,22 +238,13 @@ public class Device {
 
             currentInstallationStepDescription = "Locating the file to store the apk in";
             LOGGER.info(currentInstallationStepDescription);
-            // Transfer the installation file from the current machine to the
-            // device
-            byte[] buffer = new byte[MAX_BUFFER_SIZE];
-            fileReaderFromApk = new FileInputStream(path);
+            apkChannel = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
 
             currentInstallationStepDescription = "Transferring installation file";
             LOGGER.info(currentInstallationStepDescription);
-            int readBytes;
-            while ((readBytes = fileReaderFromApk.read(buffer)) >= 0) {
-                String base64Buffer = Base64.getEncoder().encodeToString(buffer);
-                response = communicator.sendAction(RoutingAction.APK_APPEND_DATA, base64Buffer, readBytes);
-
-                if (response != DeviceCommunicator.VOID_SUCCESS) {
-                    throw communicator.getLastException();
-                }
-            }
+            // Transfer the installation file from the current machine to the
+            // device
+            transferApkData(apkChannel);
 
             currentInstallationStepDescription = "Installing transferred file";
             LOGGER.info(currentInstallationStepDescription);
@@ -252,9 +262,9 @@ public class Device {
             communicator.sendAction(RoutingAction.APK_DISCARD);
             return false;
         } finally {
-            if (fileReaderFromApk != null) {
+            if (apkChannel != null) {
                 try {
-                    fileReaderFromApk.close();
+                    apkChannel.close();
                 } catch (IOException e) {
                     // Nothing can be done here anymore
                     return false;
@@ -264,6 +274,165 @@ public class Device {
         return true;
     }
 
+    /**
+     * Transfers the content of the apk file to the device in large chunks. By default each chunk is sent after the
+     * previous one is appended, because the chunks carry no offset. When a larger
+     * {@link ConfigurationPropertiesLoader#getApkUploadWindowSize() window} is configured, up to that many chunks are sent
+     * without waiting for the previous ones, relying on the Agent to append them in the order of their arrival.
+     *
+     * @param apkChannel
+     *        - channel for reading the apk file
+     * @throws IOException
+     *         if reading the apk file fails
+     * @throws CommandFailedException
+     *         if appending a chunk on the device fails
+     */
+    private void transferApkData(FileChannel apkChannel) throws IOException, CommandFailedException {
+        int windowSize = ConfigurationPropertiesLoader.getApkUploadWindowSize();
+        ByteBuffer chunk = ByteBuffer.allocate(ConfigurationPropertiesLoader.getApkUploadChunkSize());
+        Deque<CompletableFuture<Object>> chunksInFlight = new ArrayDeque<>(windowSize);
+
+        try {
+            int readBytes;
+            while ((readBytes = readApkChunk(apkChannel, chunk)) > 0) {
+                if (chunksInFlight.size() >= windowSize) {
+                    awaitApkChunk(chunksInFlight.poll());
+                }
+
+                String base64Chunk = encodeApkChunk(chunk);
+                chunksInFlight.add(communicator.sendActionAsync(RoutingAction.APK_APPEND_DATA, base64Chunk, readBytes));
+            }
+
+            while (!chunksInFlight.isEmpty()) {
+                awaitApkChunk(chunksInFlight.poll());
+            }
+        } finally {
+            // let the remaining chunks settle, so the apk can be safely discarded after a failure
+            for (CompletableFuture<Object> chunkInFlight : chunksInFlight) {
+                chunkInFlight.handle((result, throwable) -> result).join();
+            }
+        }
+    }
+
+    /**
+     * Reads the next chunk of the apk file, filling the whole buffer unless the end of the file is reached.
+     *
+     * @return the number of the read bytes, <code>0</code> if the end of the file is reached
+     */
+    private int readApkChunk(FileChannel apkChannel, ByteBuffer chunk) throws IOException {
+        chunk.clear();
+        while (chunk.hasRemaining() && apkChannel.read(chunk) >= 0) {
+            // keep reading until the chunk is full or the end of the file is reached
+        }
+        chunk.flip();
+
+        return chunk.remaining();
+    }
+
+    /**
+     * Encodes only the read bytes of the given chunk.
+     */
+    private String encodeApkChunk(ByteBuffer chunk) {
+        byte[] chunkData = new byte[chunk.remaining()];
+        chunk.get(chunkData);
+
+        return Base64.getEncoder().encodeToString(chunkData);
+    }
+
+    /**
+     * Waits for the given chunk to be appended, rethrowing the failure of that chunk.
+     */
+    private void awaitApkChunk(CompletableFuture<Object> chunkInFlight) throws CommandFailedException {
+        try {
+            chunkInFlight.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof CommandFailedException) {
+                throw (CommandFailedException) cause;
+            }
+
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+
+            throw new CommandFailedException("Appending apk data failed.", cause);
+        }
+    }
+
+    /**
+     * Installs a specified Android application file on this device without blocking the calling thread.
+     *
+     * @param path
+     *        - location of the file to be installed.
+     * @param shouldForceInstall
+     *        - if the application should be reinstalled if present (keeping its data)
+     * @return a {@link CompletableFuture future} that is completed with <code>true</code> if the APK installation is
+     *         successful, <code>false</code> if it fails.
+     */
+    private CompletableFuture<Boolean> doApkInstallationAsync(final String path, final boolean shouldForceInstall) {
+        LOGGER.info("Create file for storing the apk");
+
+        // a failed step fails its future with the exception of that step, which skips the remaining steps
+        return communicator.sendActionAsync(RoutingAction.APK_INIT_INSTALL).thenCompose(response -> {
+            LOGGER.info("Transferring installation file");
+
+            final FileChannel apkChannel;
+            try {
+                apkChannel = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+
+            ByteBuffer chunk = ByteBuffer.allocate(ConfigurationPropertiesLoader.getApkUploadChunkSize());
+            return appendApkDataAsync(apkChannel, chunk).whenComplete((result, throwable) -> {
+                try {
+                    apkChannel.close();
+                } catch (IOException e) {
+                    // Nothing can be done here anymore
+                }
+            });
+        }).thenCompose(response -> {
+            LOGGER.info("Installing transferred file");
+            return communicator.sendActionAsync(RoutingAction.APK_BUILD_AND_INSTALL, shouldForceInstall);
+        }).thenApply(response -> {
+            LOGGER.info("File installation successfull.");
+            return true;
+        }).exceptionally(throwable -> {
+            LOGGER.fatal("Exception occurred while installing the apk file.", throwable);
+            // This should work even if the apk file was not created at all.
+            communicator.sendActionAsync(RoutingAction.APK_DISCARD);
+            return false;
+        });
+    }
+
+    /**
+     * Transfers the remaining content of the given channel to the device one chunk at a time.
+     *
+     * @param apkChannel
+     *        - channel for reading the apk file
+     * @param chunk
+     *        - buffer for the chunks, reused for the whole transfer
+     * @return a {@link CompletableFuture future} that is completed when the whole content is transferred
+     */
+    private CompletableFuture<Object> appendApkDataAsync(final FileChannel apkChannel, final ByteBuffer chunk) {
+        int readBytes;
+
+        try {
+            readBytes = readApkChunk(apkChannel, chunk);
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+
+        if (readBytes == 0) {
+            return CompletableFuture.completedFuture(DeviceCommunicator.VOID_SUCCESS);
+        }
+
+        String base64Chunk = encodeApkChunk(chunk);
+
+        return communicator.sendActionAsync(RoutingAction.APK_APPEND_DATA, base64Chunk, readBytes)
+                           .thenCompose(response -> appendApkDataAsync(apkChannel, chunk));
+    }
+
     /**
      * Simulates a double tap on the specified point.
      *
@@ -275,6 +444,17 @@ public class Device {
         return (boolean) communicator.sendAction(RoutingAction.GESTURE_DOUBLE_TAP, point);
     }
 
+    /**
+     * Creates a new {@link ActionBatch batch} of actions for this device. The batched actions are sent one at a time
+     * in the order they were added, each after the response of the previous one, so a batch takes as many round trips
+     * to the device as the same actions executed one by one.
+     *
+     * @return an empty {@link ActionBatch} for this device
+     */
+    public ActionBatch batch() {
+        return new ActionBatch(communicator);
+    }
+
     /**
      * Executes user-described gesture on this device.
      *
@@ -292,7 +472,7 @@ public class Device {
      *         active screen fails.
      */
     public Screen getActiveScreen() {
-        activeScreen = new Screen(communicator);
+        activeScreen = new Screen(communicator, uiChangeMonitor);
 
         return activeScreen;
     }
@@ -360,14 +540,14 @@ public class Device {
 
     /**
      * Provides information about device physical properties, such as type (tablet or emulator), dpi, resolution,
-     * android API level, manufacturer, camera presence and others.
+     * android API level, manufacturer, camera presence and others. The properties do not change while the device is
+     * allocated, so they are requested from the device only once and the returned structure is shared by all callers.
      *
      * @return {@link DeviceInformation DeviceInformation} structure with information for the testing device,<br>
      *         <code>null</code> if getting device information fails.
      */
     public DeviceInformation getInformation() {
-        DeviceInformation wrappedDeviceInformation = (DeviceInformation) communicator.sendAction(RoutingAction.GET_DEVICE_INFORMATION);
-        return wrappedDeviceInformation;
+        return communicator.getDeviceInformation();
     }
 
     /**
@@ -402,12 +582,24 @@ public class Device {
      *         It can be subsequently dumped to a file and directly opened as a PNG image.
      */
     public byte[] getScreenshot() {
-        String base64String = (String) communicator.sendAction(RoutingAction.GET_SCREENSHOT);
-        byte[] screenshotBytes = Base64.getDecoder().decode(base64String);
+        byte[] screenshotBytes = communicator.sendBase64Action(RoutingAction.GET_SCREENSHOT);
 
         return screenshotBytes;
     }
 
+    /**
+     * Gets screenshot of this device's active screen without blocking the calling thread.
+     *
+     * @return a {@link CompletableFuture future} that is completed with a byte buffer, containing captured device
+     *         screen, or exceptionally with the {@link CommandFailedException} if getting the screenshot fails. It can
+     *         be subsequently dumped to a file and directly opened as a PNG image.
+     */
+    public CompletableFuture<byte[]> getScreenshotAsync() {
+        return communicator.sendActionAsync(RoutingAction.GET_SCREENSHOT)
+                           .thenApply(result -> result instanceof String
+                                   ? DeviceCommunicator.decodeBase64((String) result) : null);
+    }
+
     /**
      * Gets screenshot of this device's active screen and saves it as an image file at a specified location.
      *
@@ -573,6 +765,36 @@ public class Device {
         return doApkInstallation(path, shouldForceInstall);
     }
 
+    /**
+     * Installs a specified Android application file on this device without blocking the calling thread. If the
+     * application is already installed, it <b>will NOT be reinstalled</b>.
+     *
+     * @param path
+     *        - location of the file to be installed
+     * @return a {@link CompletableFuture future} that is completed with <code>true</code> if the APK installation is
+     *         successful, <code>false</code> if it fails
+     */
+    public CompletableFuture<Boolean> installAPKAsync(String path) {
+        return doApkInstallationAsync(path, false);
+    }
+
+    /**
+     * Installs a specified Android application file on this device without blocking the calling thread.
+     * <p>
+     * If the application is already installed and <code>shouldForceInstall</code> is true, the application will be
+     * reinstalled but its data will be kept.
+     *
+     * @param path
+     *        - location of the file to be installed
+     * @param shouldForceInstall
+     *        - if the application should be reinstalled if present (keeping its data)
+     * @return a {@link CompletableFuture future} that is completed with <code>true</code> if the APK installation is
+     *         successful, <code>false</code> if it fails
+     */
+    public CompletableFuture<Boolean> installAPKAsync(String path, boolean shouldForceInstall) {
+        return doApkInstallationAsync(path, shouldForceInstall);
+    }
+
     /**
      * Checks if this device is in a WAKE state.<br>
      *
@@ -699,10 +921,11 @@ public class Device {
             stopScreenRecording();
         }
 
-        if (isLogcatEnabled) {
+        if (logcatStreamer != null) {
             stopLogcat();
         }
 
+        uiChangeMonitor.stop();
         closeChromeDriver();
         communicator.release();
     }
@@ -1490,9 +1713,11 @@ public class Device {
      *
      * @param packageName
      *        - the package name of the application
+     * @return <code>true</code> if the data is cleared successfully, <code>false</code> otherwise
      */
-    public void clearApplicationData(String packageName) {
-        communicator.sendAction(RoutingAction.CLEAR_APP_DATA, packageName);
+    public boolean clearApplicationData(String packageName) {
+        Object response = communicator.sendAction(RoutingAction.CLEAR_APP_DATA, packageName);
+        return response == DeviceCommunicator.VOID_SUCCESS;
     }
 
     /**
@@ -1609,82 +1834,66 @@ public class Device {
         String filename = logcatFolderPath + callerClassName + "." + callerMethodName;
 
         filename = composeBaseLogcatFileName(filename + "_");
-        
-        communicator.sendAction(true, RoutingAction.START_DEVICE_LOGCAT, deviceSerialNumber, command);
-
-        getLogcatBuffer(filename);
-    }
 
-    /**
-     * Prints/Write data from the LogCat buffer and returns the total number of the lines.
-     *
-     * @param bufferedWriter
-     *        - a {@link BufferedWriter}
-     * @param buffer
-     *        - {@link Pair} of control number and log data
-     * @param expectedLineId
-     *        - a control ID that verifies that the log data is received in consistent order
-     * @return the ID of the next expected line from the buffer.
-     * @throws IOException
-     *         throw when fails to write the data from the buffer
-     */
-    private int printBuffer(BufferedWriter bufferedWriter, List<Pair<Integer, String>> buffer, int expectedLineId)
-        throws IOException {
-        if (buffer.size() > 0) {
-            for (Pair<Integer, String> idToLogLine : buffer) {
-                if (expectedLineId != idToLogLine.getKey()) {
-                    LOGGER.error("Some logcat output is missing.");
-                }
-                System.out.println(idToLogLine.getValue());
-                bufferedWriter.write(idToLogLine.getValue() + System.getProperty("line.separator"));
-                expectedLineId++;
-            }
+        synchronized (this) {
+            // the lines of the new session must not be fetched by the previous streamer
+            stopLogcatStreamer();
+            logcatIndex.clear();
+            communicator.sendAction(true, RoutingAction.START_DEVICE_LOGCAT, deviceSerialNumber, command);
+
+            PrintStream console = ConfigurationPropertiesLoader.isLogcatConsoleEchoEnabled() ? System.out : null;
+            LogcatFileWriter logWriter = new LogcatFileWriter(filename,
+                                                              ConfigurationPropertiesLoader.isLogcatCompressionEnabled(),
+                                                              ConfigurationPropertiesLoader.getLogcatMaxFileSize(),
+                                                              console);
+            logcatStreamer = new LogcatStreamer(communicator, deviceSerialNumber, logWriter, logcatIndex);
+            logcatStreamer.start();
         }
-
-        return expectedLineId;
     }
 
     /**
-     * Gets dynamically the new data from the LogCat buffer and prints on the console.
+     * Gets the index of the LogCat lines received from this device since LogCat logging was last started with one of
+     * the <code>startLogcat</code> methods. The lines of a previous session are removed when a new one is started. The
+     * index can be searched for lines by level and tag, or waited on for a specific line, without requesting the device
+     * log again.
      *
-     * @param filename
-     *        - the name of the log file
+     * @return the {@link LogcatIndex} of this device
      */
-    private void getLogcatBuffer(final String filename) {
-        final String serialNumber = this.getInformation().getSerialNumber();
-
-        Runnable getLogcatBuffer = new Runnable() {
-            @SuppressWarnings("unchecked")
-            @Override
-            public void run() {
-                int expectedLineId = 0;
-                try (BufferedWriter bufferedWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(filename),
-                                                                                               "UTF-8"))) {
-                    while (isLogcatEnabled) {
-                        List<Pair<Integer, String>> buffer = (List<Pair<Integer, String>>) communicator.sendAction(RoutingAction.GET_LOGCAT_BUFFER,
-                                                                                                                   serialNumber);
-                        expectedLineId = printBuffer(bufferedWriter, buffer, expectedLineId);
-                    }
-                } catch (IOException e) {
-                    LOGGER.error(String.format("Storing file for device with serial number %s failed.", serialNumber),
-                                 e);
-                }
-            }
-        };
-
-        Thread getLogcatBufferThread = new Thread(getLogcatBuffer);
-        getLogcatBufferThread.start();
+    public LogcatIndex logcat() {
+        return logcatIndex;
     }
 
     /**
      * Stops the LogCat buffering and the ADB process on the agent.
      */
     public void stopLogcat() {
-        isLogcatEnabled = false;
+        synchronized (this) {
+            stopLogcatStreamer();
+        }
+
         String deviceSerialNumber = this.getInformation().getSerialNumber();
         communicator.sendAction(RoutingAction.STOP_LOGCAT, deviceSerialNumber);
     }
 
+    /**
+     * Stops the running LogCat streamer, if any, and waits for its request for lines that is in flight to complete.
+     */
+    private void stopLogcatStreamer() {
+        if (logcatStreamer == null) {
+            return;
+        }
+
+        try {
+            if (!logcatStreamer.stopAndWait(communicator.getResponseWaitTimeout())) {
+                LOGGER.warn("The LogCat fetching did not stop in time.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        logcatStreamer = null;
+    }
+
     /**
      * Clears the LogCat log from the device.
      */
@@ -1775,30 +1984,32 @@ public class Device {
      * @return <code>true</code> if device log is stored successfully, <code>false</code> otherwise
      */
     private boolean getDeviceLogcat(String logFilePath, String logFilters) {
-        String base64Logcat = (String) communicator.sendAction(RoutingAction.GET_DEVICE_LOGCAT, logFilters);
-        byte[] data = Base64.getDecoder().decode(base64Logcat);
+        Object logcat = communicator.sendAction(RoutingAction.GET_DEVICE_LOGCAT, logFilters);
+        if (!(logcat instanceof String)) {
+            LOGGER.error("Getting the device LogCat failed.");
+            return false;
+        }
 
-        return writeLogFile(logFilePath, data);
+        return writeLogFile(logFilePath, (String) logcat);
     }
 
     /**
-     * Stores the given byte sequence into a file with the specified path.
+     * Stores the log returned by the device into a file with the specified path. An encoded log is decoded in chunks
+     * while it is written, so the whole decoded log is never held in memory.
      *
      * @param filePath
      *        - path to the file
-     * @param data
-     *        - sequence of bytes to be stored
+     * @param logcat
+     *        - the log returned by the device, a Base64 encoded string
      * @return <code>true</code> if data is stored in the file, <code>false</code> otherwise
      */
-    private boolean writeLogFile(String filePath, byte[] data) {
+    private boolean writeLogFile(String filePath, String logcat) {
         filePath = addFileSeparatorIfNotExists(filePath);
         filePath = composeBaseLogcatFileName(filePath);
         File localFile = new File(filePath);
 
         try {
-            FileOutputStream fileOutputStream = new FileOutputStream(localFile);
-            fileOutputStream.write(data);
-            fileOutputStream.close();
+            ChunkedFileWriter.writeBase64(localFile.toPath(), logcat);
         } catch (IOException e) {
             String serialNumber = getInformation().getSerialNumber();
             LOGGER.error(String.format("Storing file for device with serial number %s failed.", serialNumber), e);
@@ -1831,8 +2042,9 @@ public class Device {
      * @return an unique filename for device LogCat
      */
     private String composeBaseLogcatFileName(String basename) {
-        String serialNumber = getInformation().getSerialNumber();
-        String model = getInformation().getModel();
+        DeviceInformation deviceInformation = getInformation();
+        String serialNumber = deviceInformation.getSerialNumber();
+        String model = deviceInformation.getModel();
         basename += "device_" + model + "_" + serialNumber + ".log";
         basename = basename.replaceAll("\\s+", "_");
 
@@ -1880,10 +2092,32 @@ public class Device {
     public boolean getUiXml(String pathToXmlFile) {
         String uiHierarchy = (String) communicator.sendAction(RoutingAction.GET_UI_XML_DUMP);
 
-        try (Writer bWritter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(pathToXmlFile),
-                                                                         "UTF-8"))) {
-            bWritter.write(uiHierarchy);
-        } catch (IOException e) {
+        return writeUiXmlFile(pathToXmlFile, uiHierarchy);
+    }
+
+    /**
+     * Gets the UIAutomator UI XML dump and saves it in a file without blocking the calling thread.
+     *
+     * @param pathToXmlFile
+     *        - full path to the location at which the XML file should be saved
+     * @return a {@link CompletableFuture future} that is completed with <code>true</code> if getting XML operation is
+     *         successful, <code>false</code> if saving the file fails, or exceptionally with the
+     *         {@link CommandFailedException} if getting the dump fails
+     */
+    public CompletableFuture<Boolean> getUiXmlAsync(final String pathToXmlFile) {
+        return communicator.sendActionAsync(RoutingAction.GET_UI_XML_DUMP)
+                           .thenApply(uiHierarchy -> writeUiXmlFile(pathToXmlFile, (String) uiHierarchy));
+    }
+
+    private boolean writeUiXmlFile(String pathToXmlFile, String uiHierarchy) {
+        if (uiHierarchy == null) {
+            LOGGER.error("Getting the UI XML dump failed.");
+            return false;
+        }
+
+        try {
+            ChunkedFileWriter.writeText(Paths.get(pathToXmlFile), uiHierarchy);
+        } catch (IOException | InvalidPathException e) {
             String message = "Saving the xml file failed.";
             LOGGER.error(message, e);
             return false;
@@ -1912,4 +2146,20 @@ public class Device {
             communicator.sendAction(RoutingAction.SET_WEB_VIEW_IMPLICIT_WAIT, implicitWaitTimeout);
         }
     }
+
+    /**
+     * Sets how long the operations on UI elements of this device (tap, double tap, long press, etc.) wait for the
+     * screen to update before returning. The other devices are not affected. The default policy is
+     * {@link PostActionWaitPolicy#FIXED_DELAY}, which always waits for the whole timeout.
+     * {@link PostActionWaitPolicy#WAIT_FOR_IDLE} returns as soon as no window content updates occur on the device for a
+     * short period.
+     *
+     * @param policy
+     *        - the {@link PostActionWaitPolicy policy} used after each UI element operation
+     * @param timeout
+     *        - the maximum time in milliseconds to wait after each UI element operation, <code>0</code> for no wait
+     */
+    public void setPostActionWait(PostActionWaitPolicy policy, int timeout) {
+        communicator.setPostActionWait(policy, timeout);
+    }
 }
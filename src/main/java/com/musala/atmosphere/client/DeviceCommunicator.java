@@ -16,16 +16,28 @@
 
 package com.musala.atmosphere.client;
 
+import java.util.Base64;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
 import org.apache.log4j.Logger;
 
 import com.musala.atmosphere.client.exceptions.DeviceInvocationRejectedException;
 import com.musala.atmosphere.client.exceptions.DeviceReleasedException;
 import com.musala.atmosphere.client.exceptions.ServerConnectionFailedException;
+import com.musala.atmosphere.client.util.ConfigurationPropertiesLoader;
+import com.musala.atmosphere.client.util.PostActionWaitPolicy;
 import com.musala.atmosphere.client.websocket.ClientDispatcher;
+import com.musala.atmosphere.commons.DeviceInformation;
 import com.musala.atmosphere.commons.RoutingAction;
 import com.musala.atmosphere.commons.cs.exception.InvalidPasskeyException;
 import com.musala.atmosphere.commons.exceptions.CommandFailedException;
 import com.musala.atmosphere.commons.exceptions.DeviceNotFoundException;
+import com.musala.atmosphere.commons.util.Pair;
 import com.musala.atmosphere.commons.webelement.exception.WebElementNotPresentException;
 
 /**
@@ -41,6 +53,29 @@ public class DeviceCommunicator {
 
     public static final Object VOID_SUCCESS = new Object();
 
+    /**
+     * Actions that only read the state of the device or wait for it to change, so they can not change the screen.
+     * These include the post-action waits, the logcat polling and the window update observation.
+     */
+    private static final Set<RoutingAction> READ_ONLY_ACTIONS =
+            EnumSet.of(RoutingAction.CHECK_ELEMENT_PRESENCE,
+                       RoutingAction.EXECUTE_XPATH_QUERY,
+                       RoutingAction.EXECUTE_XPATH_QUERY_ON_LOCAL_ROOT,
+                       RoutingAction.GET_AWAKE_STATUS,
+                       RoutingAction.GET_CHILDREN,
+                       RoutingAction.GET_DEVICE_INFORMATION,
+                       RoutingAction.GET_DEVICE_ORIENTATION,
+                       RoutingAction.GET_LAST_TOAST,
+                       RoutingAction.GET_LOGCAT_BUFFER,
+                       RoutingAction.GET_SCREENSHOT,
+                       RoutingAction.GET_SCREEN_ORIENTATION,
+                       RoutingAction.GET_UI_ELEMENTS,
+                       RoutingAction.GET_UI_XML_DUMP,
+                       RoutingAction.IS_LOCKED,
+                       RoutingAction.WAIT_FOR_EXISTS,
+                       RoutingAction.WAIT_FOR_WINDOW_UPDATE,
+                       RoutingAction.WAIT_UNTIL_GONE);
+
     private CommandFailedException lastSentActionException;
 
     private ClientDispatcher dispatcher = ClientDispatcher.getInstance();
@@ -49,6 +84,14 @@ public class DeviceCommunicator {
 
     private boolean releasedDevice;
 
+    private volatile DeviceInformation deviceInformation;
+
+    private final AtomicLong actionEpoch = new AtomicLong();
+
+    private volatile PostActionWaitPolicy postActionWaitPolicy;
+
+    private volatile int postActionWaitTimeout;
+
     /**
      * Creates an instance for specified client device.
      *
@@ -80,6 +123,73 @@ public class DeviceCommunicator {
         return lastSentActionException;
     }
 
+    /**
+     * Gets the maximum time to wait for the response of an action sent to the device.
+     *
+     * @return the response wait timeout in milliseconds
+     */
+    public int getResponseWaitTimeout() {
+        return dispatcher.getResponseWaitTimeout();
+    }
+
+    /**
+     * Sets the policy for waiting after an operation on a UI element of this device. The other devices keep their
+     * policy.
+     *
+     * @param policy
+     *        - the post action {@link PostActionWaitPolicy wait policy}
+     * @param timeout
+     *        - the maximum time in milliseconds to wait after an operation, <code>0</code> for no wait
+     */
+    public void setPostActionWait(PostActionWaitPolicy policy, int timeout) {
+        if (policy == null) {
+            throw new IllegalArgumentException("The post action wait policy cannot be null.");
+        }
+
+        if (timeout < 0) {
+            throw new IllegalArgumentException("The post action wait timeout should be a nonnegative integer number.");
+        }
+
+        postActionWaitTimeout = timeout;
+        postActionWaitPolicy = policy;
+    }
+
+    /**
+     * Gets the policy for waiting after an operation on a UI element of this device. Unless it was set for this device,
+     * the policy is loaded from the config file.
+     *
+     * @return the post action {@link PostActionWaitPolicy wait policy}
+     */
+    public PostActionWaitPolicy getPostActionWaitPolicy() {
+        PostActionWaitPolicy policy = postActionWaitPolicy;
+        return policy != null ? policy : ConfigurationPropertiesLoader.getPostActionWaitPolicy();
+    }
+
+    /**
+     * Gets the maximum time in milliseconds to wait after an operation on a UI element of this device. Unless it was
+     * set for this device, the timeout is loaded from the config file.
+     *
+     * @return the post action wait timeout in milliseconds
+     */
+    public int getPostActionWaitTimeout() {
+        if (postActionWaitPolicy == null) {
+            return ConfigurationPropertiesLoader.getPostActionWaitTimeout();
+        }
+
+        return postActionWaitTimeout;
+    }
+
+    /**
+     * Gets the count of the actions sent to the device through this communicator that can change the screen of the
+     * device. The UI elements use it to detect whether their presence on the screen has to be checked again. Actions
+     * that only read the state of the device or wait for it to change are not counted.
+     *
+     * @return the current action epoch
+     */
+    public long getActionEpoch() {
+        return actionEpoch.get();
+    }
+
     /**
      * Requests an action invocation on the device wrapper.
      *
@@ -96,6 +206,7 @@ public class DeviceCommunicator {
             throw new DeviceReleasedException("The device you are trying to use is released.");
         }
 
+        countAction(action);
         lastSentActionException = null;
         Object response = null;
 
@@ -110,24 +221,135 @@ public class DeviceCommunicator {
                 response = VOID_SUCCESS;
             }
         } catch (Exception e) {
-            if (e instanceof CommandFailedException) {
-                LOGGER.error("Executing action failed.", e);
-                lastSentActionException = (CommandFailedException) e;
-            } else if (e instanceof IllegalArgumentException) {
-                throw new IllegalArgumentException(e.getMessage());
-            } if (e instanceof InvalidPasskeyException || e instanceof DeviceNotFoundException) {
-                LOGGER.error("Executing action was rejected by the server.", e);
-                throw new DeviceInvocationRejectedException(e);
-            } else if (e instanceof ServerConnectionFailedException) {
-                throw new ServerConnectionFailedException("Could not send the routing action (connection failure).");
-            } else if (e instanceof WebElementNotPresentException) {
-                throw new WebElementNotPresentException(e.getMessage());
-            }
+            handleActionException(e);
         }
 
         return response;
     }
 
+    /**
+     * Requests an action invocation on the device wrapper without blocking the calling thread. All failures are
+     * reported through the returned future, so it never throws.
+     *
+     * @param action
+     *        - a {@link RoutingAction} instance that specifies the action to be invoked
+     * @param args
+     *        - the action parameters (if required)
+     * @return a {@link CompletableFuture future} that is completed with the result from the {@link RoutingAction
+     *         action} invocation, or exceptionally with the {@link CommandFailedException} of the failed action, a
+     *         {@link DeviceReleasedException} if the device is released, or the exception the blocking
+     *         {@link #sendAction(RoutingAction, Object...) sendAction} would throw
+     */
+    public CompletableFuture<Object> sendActionAsync(RoutingAction action, Object... args) {
+        if (releasedDevice) {
+            CompletableFuture<Object> releasedResult = new CompletableFuture<>();
+            String message = "The device you are trying to use is released.";
+            releasedResult.completeExceptionally(new DeviceReleasedException(message));
+
+            return releasedResult;
+        }
+
+        countAction(action);
+        return dispatcher.routeWithFuture(deviceId, invocationPasskey, action, args).handle((result, throwable) -> {
+            if (throwable == null) {
+                return result == null ? VOID_SUCCESS : result;
+            }
+
+            Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+            if (cause instanceof CommandFailedException) {
+                LOGGER.error("Executing action failed.", cause);
+            } else if (cause instanceof Exception && !(cause instanceof TimeoutException)) {
+                // the rejections and the connection failures are converted as for the blocking actions
+                handleActionException((Exception) cause);
+            }
+
+            throw new CompletionException(cause);
+        });
+    }
+
+    private void countAction(RoutingAction action) {
+        if (!READ_ONLY_ACTIONS.contains(action)) {
+            actionEpoch.incrementAndGet();
+        }
+    }
+
+    /**
+     * Gets the information about the physical properties of the device (serial number, model, API level, resolution,
+     * DPI, emulator flag, etc.). These properties do not change while the device is allocated, so the information is
+     * requested from the device only once and the same instance is returned on subsequent calls.
+     *
+     * @return the {@link DeviceInformation} of the device or <code>null</code> if getting the device information failed
+     */
+    public DeviceInformation getDeviceInformation() {
+        if (deviceInformation == null) {
+            Object response = sendAction(RoutingAction.GET_DEVICE_INFORMATION);
+            if (response instanceof DeviceInformation) {
+                deviceInformation = (DeviceInformation) response;
+            }
+        }
+
+        return deviceInformation;
+    }
+
+    /**
+     * Gets the screen resolution of the device from the cached {@link #getDeviceInformation() device information}.
+     *
+     * @return a pair of the device screen width and height or <code>null</code> if getting the device information failed
+     */
+    public Pair<Integer, Integer> getDeviceResolution() {
+        DeviceInformation information = getDeviceInformation();
+        return information != null ? information.getResolution() : null;
+    }
+
+    /**
+     * Requests an action whose result is a sequence of bytes (a screenshot, a log file, etc.), sent by the Agent as a
+     * Base64 encoded string, and decodes the result.
+     *
+     * @param action
+     *        - a {@link RoutingAction} instance that specifies the action to be invoked
+     * @param args
+     *        - the action parameters (if required)
+     * @return the decoded bytes returned by the {@link RoutingAction action} invocation or <code>null</code> if the
+     *         action failed
+     */
+    public byte[] sendBase64Action(RoutingAction action, Object... args) {
+        Object result = sendAction(action, args);
+        return result instanceof String ? decodeBase64((String) result) : null;
+    }
+
+    /**
+     * Decodes a Base64 encoded action result.
+     *
+     * @param base64
+     *        - the Base64 encoded result of the action
+     * @return the decoded bytes or <code>null</code> if the given result is <code>null</code>
+     */
+    static byte[] decodeBase64(String base64) {
+        return base64 != null ? Base64.getDecoder().decode(base64) : null;
+    }
+
+    /**
+     * Records or rethrows an exception that occurred during an action invocation.
+     *
+     * @param e
+     *        - the exception thrown during the action invocation
+     */
+    private void handleActionException(Exception e) {
+        if (e instanceof CommandFailedException) {
+            LOGGER.error("Executing action failed.", e);
+            lastSentActionException = (CommandFailedException) e;
+        } else if (e instanceof IllegalArgumentException) {
+            throw new IllegalArgumentException(e.getMessage());
+        } if (e instanceof InvalidPasskeyException || e instanceof DeviceNotFoundException) {
+            LOGGER.error("Executing action was rejected by the server.", e);
+            throw new DeviceInvocationRejectedException(e);
+        } else if (e instanceof ServerConnectionFailedException) {
+            throw new ServerConnectionFailedException("Could not send the routing action (connection failure).");
+        } else if (e instanceof WebElementNotPresentException) {
+            throw new WebElementNotPresentException(e.getMessage());
+        }
+    }
+
     /**
      * Requests an routing action to a device and expects a result.
      * 
@@ -0,0 +1,216 @@
+// This file is part of the ATMOSPHERE mobile testing framework.
+// Copyright (C) 2016 MusalaSoft
+//
+// ATMOSPHERE is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// ATMOSPHERE is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with ATMOSPHERE.  If not, see <http://www.gnu.org/licenses/>.
+
+package com.musala.atmosphere.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+import org.apache.log4j.Logger;
+
+import com.musala.atmosphere.commons.cs.deviceselection.DeviceSelector;
+
+/**
+ * A group of {@link Device devices} that are allocated together and operated in parallel. Every broadcast operation
+ * is started on all devices at once and its per-device results (or failures) are returned as a map of futures.
+ *
+ * @author dimcho.nedev
+ *
+ */
+public class DeviceGroup {
+    private static final Logger LOGGER = Logger.getLogger(DeviceGroup.class.getCanonicalName());
+
+    private final Builder builder;
+
+    private final List<Device> devices;
+
+    private final ExecutorService executor;
+
+    /**
+     * Allocates concurrently a device for each of the given {@link DeviceSelector selectors}. If any of the allocations
+     * fails, the already allocated devices are released.
+     *
+     * @param builder
+     *        - the {@link Builder} used for allocating and releasing the devices
+     * @param deviceSelectors
+     *        - a {@link DeviceSelector selector} for each device in the group
+     */
+    public DeviceGroup(Builder builder, List<DeviceSelector> deviceSelectors) {
+        this.builder = builder;
+        // daemon threads, so a group that is never released does not keep the JVM alive
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "atmosphere-device-group");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        List<CompletableFuture<Device>> allocations = builder.getDevicesAsync(deviceSelectors);
+
+        List<Device> allocatedDevices = new ArrayList<>();
+        RuntimeException allocationFailure = null;
+
+        for (CompletableFuture<Device> allocation : allocations) {
+            try {
+                allocatedDevices.add(allocation.join());
+            } catch (CompletionException e) {
+                LOGGER.error("Allocating a device for the group failed.", e.getCause());
+                if (allocationFailure == null) {
+                    allocationFailure = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+                }
+            }
+        }
+
+        this.devices = Collections.unmodifiableList(allocatedDevices);
+
+        if (allocationFailure != null) {
+            release();
+            throw allocationFailure;
+        }
+    }
+
+    /**
+     * Gets the devices in this group.
+     *
+     * @return an unmodifiable list of the devices in this group
+     */
+    public List<Device> getDevices() {
+        return devices;
+    }
+
+    /**
+     * Gets the number of the devices in this group.
+     *
+     * @return the number of the devices in this group
+     */
+    public int size() {
+        return devices.size();
+    }
+
+    /**
+     * Executes the given operation on all devices in this group in parallel.
+     *
+     * @param operation
+     *        - the operation to be executed on each device
+     * @return a map of each device to the future result of the operation on it
+     */
+    public <T> Map<Device, CompletableFuture<T>> broadcast(final Function<Device, T> operation) {
+        Map<Device, CompletableFuture<T>> results = new LinkedHashMap<>();
+        for (final Device device : devices) {
+            results.put(device, CompletableFuture.supplyAsync(() -> operation.apply(device), executor));
+        }
+
+        return results;
+    }
+
+    /**
+     * Installs a specified Android application file on all devices in this group.
+     *
+     * @param path
+     *        - location of the file to be installed
+     * @return a map of each device to the future result of the installation on it
+     * @see Device#installAPK(String)
+     */
+    public Map<Device, CompletableFuture<Boolean>> installAPK(String path) {
+        Map<Device, CompletableFuture<Boolean>> results = new LinkedHashMap<>();
+        for (Device device : devices) {
+            results.put(device, device.installAPKAsync(path));
+        }
+
+        return results;
+    }
+
+    /**
+     * Unlocks all devices in this group and starts an application on them.
+     *
+     * @param packageName
+     *        - name of the application's package
+     * @return a map of each device to the future result of the application launch on it
+     * @see Device#startApplication(String)
+     */
+    public Map<Device, CompletableFuture<Boolean>> startApplication(final String packageName) {
+        return broadcast(device -> device.startApplication(packageName));
+    }
+
+    /**
+     * Executes a command in the shell of all devices in this group.
+     *
+     * @param shellCommand
+     *        - String, representing the command for execution
+     * @return a map of each device to the future output of its console, after the command is executed
+     * @see Device#executeShellCommand(String)
+     */
+    public Map<Device, CompletableFuture<String>> executeShellCommand(String shellCommand) {
+        Map<Device, CompletableFuture<String>> results = new LinkedHashMap<>();
+        for (Device device : devices) {
+            results.put(device, device.executeShellCommandAsync(shellCommand));
+        }
+
+        return results;
+    }
+
+    /**
+     * Clears the data of a given application on all devices in this group.
+     *
+     * @param packageName
+     *        - the package name of the application
+     * @return a map of each device to the future result of clearing the data on it
+     * @see Device#clearApplicationData(String)
+     */
+    public Map<Device, CompletableFuture<Boolean>> clearApplicationData(final String packageName) {
+        return broadcast(device -> device.clearApplicationData(packageName));
+    }
+
+    /**
+     * Gets a screenshot of the active screen of all devices in this group.
+     *
+     * @return a map of each device to its future screenshot
+     * @see Device#getScreenshot()
+     */
+    public Map<Device, CompletableFuture<byte[]>> getScreenshot() {
+        Map<Device, CompletableFuture<byte[]>> results = new LinkedHashMap<>();
+        for (Device device : devices) {
+            results.put(device, device.getScreenshotAsync());
+        }
+
+        return results;
+    }
+
+    /**
+     * Releases all devices in this group. A device that fails to be released does not prevent the release of the
+     * others.
+     */
+    public void release() {
+        try {
+            for (Device device : devices) {
+                try {
+                    builder.releaseDevice(device);
+                } catch (Exception e) {
+                    LOGGER.error("Releasing a device from the group failed.", e);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,256 @@
+// This file is part of the ATMOSPHERE mobile testing framework.
+// Copyright (C) 2016 MusalaSoft
+//
+// ATMOSPHERE is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// ATMOSPHERE is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with ATMOSPHERE.  If not, see <http://www.gnu.org/licenses/>.
+
+package com.musala.atmosphere.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.log4j.Logger;
+
+import com.musala.atmosphere.client.device.HardwareButton;
+import com.musala.atmosphere.commons.cs.deviceselection.DeviceSelector;
+
+/**
+ * An opt-in pool of pre-allocated and unlocked {@link Device devices} on top of the {@link Builder}. Tests borrow a
+ * device for a {@link DeviceSelector} and return it when done, instead of allocating and releasing a device on the
+ * Server every time. A returned device is reset (the configured applications are force stopped and their data is
+ * cleared and the HOME button is pressed) before it is borrowed again.
+ * <p>
+ * <b>Note:</b> the devices are pooled per {@link DeviceSelector} instance, so the same selector instance should be
+ * used for borrowing devices with the same characteristics.
+ * </p>
+ *
+ * @author dimcho.nedev
+ *
+ */
+public class DevicePool {
+    private static final Logger LOGGER = Logger.getLogger(DevicePool.class.getCanonicalName());
+
+    private final Builder builder;
+
+    private final int devicesPerSelector;
+
+    private final List<String> resetPackages;
+
+    private final ConcurrentMap<DeviceSelector, Queue<Device>> idleDevices = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a device pool.
+     *
+     * @param builder
+     *        - the {@link Builder} used for allocating and releasing the devices
+     * @param devicesPerSelector
+     *        - the number of idle devices kept for each {@link DeviceSelector}
+     * @param resetPackages
+     *        - the packages of the applications that are force stopped and whose data is cleared when a device is
+     *        returned to the pool
+     */
+    public DevicePool(Builder builder, int devicesPerSelector, List<String> resetPackages) {
+        if (devicesPerSelector <= 0) {
+            throw new IllegalArgumentException("The number of devices per selector should be a positive number.");
+        }
+
+        this.builder = builder;
+        this.devicesPerSelector = devicesPerSelector;
+        this.resetPackages = Collections.unmodifiableList(new ArrayList<>(resetPackages));
+    }
+
+    /**
+     * Allocates concurrently and unlocks devices for the given {@link DeviceSelector}, until the pool holds the
+     * configured number of idle devices for it. If any of the devices can not be allocated or unlocked, all devices
+     * allocated by the warm-up are released and the failure is thrown.
+     *
+     * @param deviceSelector
+     *        - the {@link DeviceSelector selector} of the devices to be allocated
+     */
+    public void warmUp(DeviceSelector deviceSelector) {
+        Queue<Device> idleQueue = getIdleQueue(deviceSelector);
+        int missingDevices = devicesPerSelector - idleQueue.size();
+
+        List<DeviceSelector> deviceSelectors = Collections.nCopies(Math.max(missingDevices, 0), deviceSelector);
+        List<Device> allocatedDevices = new ArrayList<>();
+        RuntimeException failure = null;
+
+        // every allocation is awaited, so no device allocated after a failure is left behind
+        for (CompletableFuture<Device> allocation : builder.getDevicesAsync(deviceSelectors)) {
+            try {
+                Device device = allocation.join();
+                allocatedDevices.add(device);
+
+                if (!device.unlock()) {
+                    throw new IllegalStateException("Unlocking an allocated device failed.");
+                }
+            } catch (RuntimeException e) {
+                RuntimeException cause = e;
+                if (e instanceof CompletionException && e.getCause() instanceof RuntimeException) {
+                    cause = (RuntimeException) e.getCause();
+                }
+
+                if (failure == null) {
+                    failure = cause;
+                } else {
+                    failure.addSuppressed(cause);
+                }
+            }
+        }
+
+        if (failure != null) {
+            LOGGER.error("Warming up the device pool failed, releasing the allocated devices.", failure);
+            for (Device device : allocatedDevices) {
+                releaseDevice(device);
+            }
+
+            throw failure;
+        }
+
+        idleQueue.addAll(allocatedDevices);
+    }
+
+    /**
+     * Borrows a device for the given {@link DeviceSelector}. An idle device is used if available, otherwise a new
+     * device is allocated and unlocked. A new device that can not be unlocked is released and the failure is thrown.
+     *
+     * @param deviceSelector
+     *        - the {@link DeviceSelector selector} of the required device
+     * @return a {@link DeviceLease lease} of the device, that returns it to the pool when closed
+     */
+    public DeviceLease borrow(DeviceSelector deviceSelector) {
+        Device device = getIdleQueue(deviceSelector).poll();
+
+        if (device == null) {
+            LOGGER.info("No idle device in the pool, allocating a new one.");
+            device = builder.getDevice(deviceSelector);
+
+            if (!device.unlock()) {
+                LOGGER.error("Unlocking a newly allocated device failed, releasing it.");
+                releaseDevice(device);
+                throw new IllegalStateException("Unlocking an allocated device failed.");
+            }
+        }
+
+        return new DeviceLease(device, deviceSelector);
+    }
+
+    /**
+     * Releases all idle devices in the pool. Borrowed devices are released when they are returned.
+     */
+    public void close() {
+        for (Queue<Device> idleQueue : idleDevices.values()) {
+            Device device;
+            while ((device = idleQueue.poll()) != null) {
+                releaseDevice(device);
+            }
+        }
+    }
+
+    private void giveBack(Device device, DeviceSelector deviceSelector) {
+        boolean isReset;
+        try {
+            isReset = reset(device);
+        } catch (RuntimeException e) {
+            LOGGER.error("Resetting a returned device failed.", e);
+            isReset = false;
+        }
+
+        if (!isReset) {
+            LOGGER.error("Could not reset a returned device, releasing it.");
+            releaseDevice(device);
+            return;
+        }
+
+        Queue<Device> idleQueue = getIdleQueue(deviceSelector);
+        if (idleQueue.size() < devicesPerSelector) {
+            idleQueue.offer(device);
+        } else {
+            releaseDevice(device);
+        }
+    }
+
+    /**
+     * Resets the device, stopping at the first failed step.
+     *
+     * @return <code>true</code> if all reset steps succeeded, <code>false</code> otherwise
+     */
+    private boolean reset(Device device) {
+        for (String packageName : resetPackages) {
+            if (!device.forceStopProcess(packageName) || !device.clearApplicationData(packageName)) {
+                return false;
+            }
+        }
+
+        return device.pressButton(HardwareButton.HOME);
+    }
+
+    private void releaseDevice(Device device) {
+        try {
+            builder.releaseDevice(device);
+        } catch (Exception e) {
+            // a failed release must not prevent the release of the other devices
+            LOGGER.error("Releasing a pooled device failed.", e);
+        }
+    }
+
+    private Queue<Device> getIdleQueue(DeviceSelector deviceSelector) {
+        return idleDevices.computeIfAbsent(deviceSelector, selector -> new ConcurrentLinkedQueue<Device>());
+    }
+
+    /**
+     * A device borrowed from a {@link DevicePool}. Closing the lease returns the device to the pool.
+     *
+     * @author dimcho.nedev
+     *
+     */
+    public class DeviceLease implements AutoCloseable {
+        private final Device device;
+
+        private final DeviceSelector deviceSelector;
+
+        private final AtomicBoolean isReturned = new AtomicBoolean();
+
+        private DeviceLease(Device device, DeviceSelector deviceSelector) {
+            this.device = device;
+            this.deviceSelector = deviceSelector;
+        }
+
+        /**
+         * Gets the borrowed device.
+         *
+         * @return the borrowed {@link Device}
+         */
+        public Device getDevice() {
+            return device;
+        }
+
+        /**
+         * Returns the device to the pool. Closing a lease more than once has no effect.
+         */
+        @Override
+        public void close() {
+            if (isReturned.compareAndSet(false, true)) {
+                giveBack(device, deviceSelector);
+            }
+        }
+    }
+}
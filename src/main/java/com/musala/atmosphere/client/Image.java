@@ -19,14 +19,22 @@ package com.musala.atmosphere.client;
 import java.awt.geom.AffineTransform;
 import java.awt.image.AffineTransformOp;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.PixelInterleavedSampleModel;
+import java.awt.image.Raster;
+import java.awt.image.SampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 
 import javax.imageio.ImageIO;
 
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 
-import com.musala.atmosphere.bitmap.comparison.kmp.KMPMatrixComparator;
 import com.musala.atmosphere.commons.ScreenOrientation;
 import com.musala.atmosphere.commons.geometry.Bounds;
 import com.musala.atmosphere.commons.geometry.Point;
@@ -46,7 +54,13 @@ public class Image {
 
     public static final String DEFAULT_FORMAT = "png";
 
-    private static final KMPMatrixComparator matrixComparator = new KMPMatrixComparator();
+    private static final int OPAQUE_ALPHA = 0xff000000;
+
+    /**
+     * The minimal count of pixels that may be the upper left corner of the sought image for which the search is run in
+     * parallel. Smaller searches finish faster than the time needed to split them between threads.
+     */
+    private static final int PARALLEL_SEARCH_MIN_CANDIDATES = 1 << 18;
 
     /**
      * Construct image object with the given image.
@@ -133,11 +147,63 @@ public class Image {
      * @return <code>true</code> if the given image is found in this image and <code>false</code> otherwise
      */
     public boolean containsImage(Image soughtImage) {
-        int[][] bufferedImageMatrix = this.getRGBMatrix();
-        int[][] soughtImageMatrix = soughtImage.getRGBMatrix();
+        return findExactImage(soughtImage) != PixelMatcher.NOT_FOUND;
+    }
+
+    /**
+     * Searches for the given image in this image, tolerating small color differences (caused by anti-aliasing or
+     * compression, for example) as described by the given options.
+     *
+     * @param soughtImage
+     *        - to search for in the image
+     * @param options
+     *        - the tolerance and the similarity threshold of the search
+     * @return the most similar {@link ImageMatch} found by the search, or <code>null</code> if the given image is not
+     *         found in this image
+     */
+    public ImageMatch containsImage(Image soughtImage, MatchOptions options) {
+        if (options.isExact()) {
+            int foundIndex = findExactImage(soughtImage);
+            if (foundIndex == PixelMatcher.NOT_FOUND) {
+                return null;
+            }
+
+            Point location = new Point(foundIndex % getWidth(), foundIndex / getWidth());
+            return new ImageMatch(location, 1.0);
+        }
+
+        PyramidMatcher matcher = new PyramidMatcher(options);
+        return matcher.find(getPixels(),
+                            getWidth(),
+                            getHeight(),
+                            soughtImage.getPixels(),
+                            soughtImage.getWidth(),
+                            soughtImage.getHeight());
+    }
+
+    /**
+     * Finds the first exact occurrence of the given image in this image, in row-major order. Searches in large images
+     * are split between the threads of the common {@link ForkJoinPool}.
+     *
+     * @return the index of the upper left pixel of the first occurrence, or {@link PixelMatcher#NOT_FOUND}
+     */
+    private int findExactImage(Image soughtImage) {
+        int width = getWidth();
+        int height = getHeight();
+        int soughtWidth = soughtImage.getWidth();
+        int soughtHeight = soughtImage.getHeight();
+        if (soughtWidth > width || soughtHeight > height) {
+            return PixelMatcher.NOT_FOUND;
+        }
 
-        boolean containsMatrix = matrixComparator.containsMatrix(bufferedImageMatrix, soughtImageMatrix);
-        return containsMatrix;
+        PixelMatcher matcher = new PixelMatcher(soughtImage.getPixels(), soughtWidth, soughtHeight);
+        int[] pixels = getPixels();
+
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        long candidates = (long) (width - soughtWidth + 1) * (height - soughtHeight + 1);
+        return pool.getParallelism() > 1 && candidates >= PARALLEL_SEARCH_MIN_CANDIDATES
+                ? matcher.findParallel(pixels, width, height, pool)
+                : matcher.find(pixels, width, height);
     }
 
     /**
@@ -289,7 +355,7 @@ public class Image {
 
         Image image = (Image) object;
         return (image.getHeight() == this.getHeight() && image.getWidth() == this.getWidth()
-                && this.containsImage(image));
+                && Arrays.equals(this.getPixels(), image.getPixels()));
     }
 
     /**
@@ -304,22 +370,92 @@ public class Image {
     }
 
     /**
-     * Used to get the RGB matrix of the given image with positive values.
+     * Gets the ARGB values of all pixels of the image in a single row-major array, in the same format as returned by
+     * {@link BufferedImage#getRGB(int, int)}. The values are copied directly from the data buffer of the image for the
+     * common integer and byte interleaved RGB image types, so no per-pixel method calls or color model conversions are
+     * made for them.
      *
-     * @return matrix with the RGB values of the given image
+     * @return array with the ARGB values of the image pixels
      */
-    private int[][] getRGBMatrix() {
-        int rows = image.getHeight();
-        int columns = image.getWidth();
-        int[][] imageMatrix = new int[rows][columns];
-
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < columns; j++) {
-                // Integer.MIN_Value because getRGB returns negatives values and our algorithm prefers positive.
-                imageMatrix[i][j] = Integer.MIN_VALUE + image.getRGB(j, i);
+    int[] getPixels() {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        Raster raster = image.getRaster();
+        SampleModel sampleModel = raster.getSampleModel();
+        DataBuffer dataBuffer = raster.getDataBuffer();
+        int type = image.getType();
+
+        if ((type == BufferedImage.TYPE_INT_ARGB || type == BufferedImage.TYPE_INT_RGB)
+                && sampleModel instanceof SinglePixelPackedSampleModel && dataBuffer instanceof DataBufferInt) {
+            return getPackedPixels(raster,
+                                   (SinglePixelPackedSampleModel) sampleModel,
+                                   (DataBufferInt) dataBuffer,
+                                   type == BufferedImage.TYPE_INT_RGB);
+        }
+
+        if ((type == BufferedImage.TYPE_3BYTE_BGR || type == BufferedImage.TYPE_4BYTE_ABGR)
+                && sampleModel instanceof PixelInterleavedSampleModel && dataBuffer instanceof DataBufferByte) {
+            return getInterleavedPixels(raster, (PixelInterleavedSampleModel) sampleModel, (DataBufferByte) dataBuffer);
+        }
+
+        return image.getRGB(0, 0, width, height, null, 0, width);
+    }
+
+    private int[] getPackedPixels(Raster raster,
+                                  SinglePixelPackedSampleModel sampleModel,
+                                  DataBufferInt dataBuffer,
+                                  boolean opaque) {
+        int width = raster.getWidth();
+        int height = raster.getHeight();
+        int[] data = dataBuffer.getData();
+        int[] pixels = new int[width * height];
+
+        // Subimages share the data buffer of their parent, so the raster translation has to be taken into account.
+        int translateX = raster.getSampleModelTranslateX();
+        int translateY = raster.getSampleModelTranslateY();
+        for (int y = 0; y < height; y++) {
+            int dataIndex = dataBuffer.getOffset() + sampleModel.getOffset(-translateX, y - translateY);
+            System.arraycopy(data, dataIndex, pixels, y * width, width);
+        }
+
+        if (opaque) {
+            for (int i = 0; i < pixels.length; i++) {
+                pixels[i] |= OPAQUE_ALPHA;
+            }
+        }
+
+        return pixels;
+    }
+
+    private int[] getInterleavedPixels(Raster raster,
+                                       PixelInterleavedSampleModel sampleModel,
+                                       DataBufferByte dataBuffer) {
+        int width = raster.getWidth();
+        int height = raster.getHeight();
+        byte[] data = dataBuffer.getData();
+        int[] pixels = new int[width * height];
+
+        int pixelStride = sampleModel.getPixelStride();
+        int[] bandOffsets = sampleModel.getBandOffsets();
+        int redOffset = bandOffsets[0];
+        int greenOffset = bandOffsets[1];
+        int blueOffset = bandOffsets[2];
+        boolean hasAlpha = sampleModel.getNumBands() > 3;
+        int alphaOffset = hasAlpha ? bandOffsets[3] : 0;
+
+        int scanlineStride = sampleModel.getScanlineStride();
+        int translateX = raster.getSampleModelTranslateX();
+        int translateY = raster.getSampleModelTranslateY();
+        int pixelIndex = 0;
+        for (int y = 0; y < height; y++) {
+            int dataIndex = dataBuffer.getOffset() + (y - translateY) * scanlineStride - translateX * pixelStride;
+            for (int x = 0; x < width; x++, dataIndex += pixelStride) {
+                int alpha = hasAlpha ? (data[dataIndex + alphaOffset] & 0xff) << 24 : OPAQUE_ALPHA;
+                pixels[pixelIndex++] = alpha | (data[dataIndex + redOffset] & 0xff) << 16
+                        | (data[dataIndex + greenOffset] & 0xff) << 8 | (data[dataIndex + blueOffset] & 0xff);
             }
         }
 
-        return imageMatrix;
+        return pixels;
     }
 }
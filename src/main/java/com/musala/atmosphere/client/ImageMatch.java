@@ -0,0 +1,60 @@
+// This file is part of the ATMOSPHERE mobile testing framework.
+// Copyright (C) 2016 MusalaSoft
+//
+// ATMOSPHERE is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// ATMOSPHERE is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with ATMOSPHERE.  If not, see <http://www.gnu.org/licenses/>.
+
+package com.musala.atmosphere.client;
+
+import com.musala.atmosphere.commons.geometry.Point;
+
+/**
+ * The result of a search for an {@link Image} in another image.
+ *
+ * @author dimcho.nedev
+ *
+ */
+public class ImageMatch {
+    private final Point location;
+
+    private final double score;
+
+    ImageMatch(Point location, double score) {
+        this.location = location;
+        this.score = score;
+    }
+
+    /**
+     * Gets the location of the upper left corner of the sought image in the searched image.
+     *
+     * @return the location of the match
+     */
+    public Point getLocation() {
+        return location;
+    }
+
+    /**
+     * Gets the fraction of the pixels of the sought image that are equal, within the requested tolerance, to the pixels
+     * at the matched location.
+     *
+     * @return a score between 0 and 1, where 1 means all pixels are equal
+     */
+    public double getScore() {
+        return score;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ImageMatch [location=%s, score=%s]", location, score);
+    }
+}
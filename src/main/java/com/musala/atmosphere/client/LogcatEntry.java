@@ -0,0 +1,102 @@
+// This file is part of the ATMOSPHERE mobile testing framework.
+// Copyright (C) 2016 MusalaSoft
+//
+// ATMOSPHERE is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// ATMOSPHERE is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with ATMOSPHERE.  If not, see <http://www.gnu.org/licenses/>.
+
+package com.musala.atmosphere.client;
+
+import com.musala.atmosphere.client.device.log.LogCatLevel;
+
+/**
+ * A line received from the LogCat of a device.
+ *
+ * @author dimcho.nedev
+ *
+ */
+public class LogcatEntry {
+    private final long sequenceNumber;
+
+    private final long receivedTime;
+
+    private final LogCatLevel level;
+
+    private final String tag;
+
+    private final String message;
+
+    private final String line;
+
+    LogcatEntry(long sequenceNumber, long receivedTime, LogCatLevel level, String tag, String message, String line) {
+        this.sequenceNumber = sequenceNumber;
+        this.receivedTime = receivedTime;
+        this.level = level;
+        this.tag = tag;
+        this.message = message;
+        this.line = line;
+    }
+
+    long getSequenceNumber() {
+        return sequenceNumber;
+    }
+
+    /**
+     * Gets the time when the line was received by the client.
+     *
+     * @return the receive time in milliseconds since the epoch
+     */
+    public long getReceivedTime() {
+        return receivedTime;
+    }
+
+    /**
+     * Gets the priority of the line.
+     *
+     * @return the {@link LogCatLevel} of the line or <code>null</code> if the line is not in a known LogCat format
+     */
+    public LogCatLevel getLevel() {
+        return level;
+    }
+
+    /**
+     * Gets the tag of the line.
+     *
+     * @return the tag of the line or <code>null</code> if the line is not in a known LogCat format
+     */
+    public String getTag() {
+        return tag;
+    }
+
+    /**
+     * Gets the message of the line, without the time, priority, tag and process information.
+     *
+     * @return the message of the line or the whole line if it is not in a known LogCat format
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Gets the line as it was received.
+     *
+     * @return the whole line
+     */
+    public String getLine() {
+        return line;
+    }
+
+    @Override
+    public String toString() {
+        return line;
+    }
+}
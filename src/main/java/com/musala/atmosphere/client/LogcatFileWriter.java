@@ -0,0 +1,164 @@
+// This file is part of the ATMOSPHERE mobile testing framework.
+// Copyright (C) 2016 MusalaSoft
+//
+// ATMOSPHERE is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// ATMOSPHERE is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with ATMOSPHERE.  If not, see <http://www.gnu.org/licenses/>.
+
+package com.musala.atmosphere.client;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes LogCat lines into local files in batches. The output can be compressed with gzip and split into several files
+ * of limited size. The lines can also be echoed to the console, once per batch.
+ *
+ * @author dimcho.nedev
+ *
+ */
+class LogcatFileWriter implements Closeable {
+    private static final String GZIP_EXTENSION = ".gz";
+
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+
+    private final String filename;
+
+    private final boolean compressed;
+
+    private final long maxFileSize;
+
+    private final PrintStream console;
+
+    private OutputStream output;
+
+    private long currentFileSize;
+
+    private int fileIndex;
+
+    /**
+     * Creates a writer for the given file. The file is created on the first write.
+     *
+     * @param filename
+     *        - the name of the first log file
+     * @param compressed
+     *        - <code>true</code> to compress the files with gzip, <code>false</code> otherwise
+     * @param maxFileSize
+     *        - the size in bytes of the (uncompressed) lines after which the writing continues in a new file, or 0 to
+     *        write all lines in a single file
+     * @param console
+     *        - the stream where the lines are echoed or <code>null</code> to disable the echo
+     */
+    LogcatFileWriter(String filename, boolean compressed, long maxFileSize, PrintStream console) {
+        this.filename = filename;
+        this.compressed = compressed;
+        this.maxFileSize = maxFileSize;
+        this.console = console;
+    }
+
+    /**
+     * Writes the given lines.
+     *
+     * @param lines
+     *        - the LogCat lines to be written
+     * @throws IOException
+     *         if writing to the file failed
+     */
+    void write(List<String> lines) throws IOException {
+        StringBuilder echo = console != null ? new StringBuilder() : null;
+
+        for (String line : lines) {
+            byte[] lineBytes = line.getBytes(StandardCharsets.UTF_8);
+            if (output == null || (maxFileSize > 0 && currentFileSize > 0
+                    && currentFileSize + lineBytes.length + LINE_SEPARATOR.length > maxFileSize)) {
+                openNextFile();
+            }
+
+            output.write(lineBytes);
+            output.write(LINE_SEPARATOR);
+            currentFileSize += lineBytes.length + LINE_SEPARATOR.length;
+
+            if (echo != null) {
+                echo.append(line).append(System.lineSeparator());
+            }
+        }
+
+        if (echo != null && echo.length() > 0) {
+            console.print(echo);
+        }
+    }
+
+    /**
+     * Flushes the written lines to the file. Compressed output is flushed up to the last complete compression block.
+     *
+     * @throws IOException
+     *         if writing to the file failed
+     */
+    void flush() throws IOException {
+        if (output != null) {
+            output.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (output != null) {
+            output.close();
+            output = null;
+        }
+    }
+
+    /**
+     * Gets the name of the file with the given index. The first file has the given name, and the index of each next file
+     * is inserted before the extension, so "device.log" continues in "device.1.log", "device.2.log" and so on.
+     *
+     * @param index
+     *        - the index of the file
+     * @return the name of the file with the given index
+     */
+    String getFilename(int index) {
+        String name = filename;
+        if (index > 0) {
+            int extensionStart = filename.lastIndexOf('.');
+            int nameStart = Math.max(filename.lastIndexOf('/'), filename.lastIndexOf('\\')) + 1;
+            if (extensionStart > nameStart) {
+                name = filename.substring(0, extensionStart) + "." + index + filename.substring(extensionStart);
+            } else {
+                name = filename + "." + index;
+            }
+        }
+
+        return compressed ? name + GZIP_EXTENSION : name;
+    }
+
+    private void openNextFile() throws IOException {
+        int nextFileIndex = output == null ? fileIndex : fileIndex + 1;
+        close();
+
+        OutputStream fileOutput = new FileOutputStream(getFilename(nextFileIndex));
+        if (compressed) {
+            fileOutput = new GZIPOutputStream(fileOutput, OUTPUT_BUFFER_SIZE, true);
+        }
+        output = new BufferedOutputStream(fileOutput, OUTPUT_BUFFER_SIZE);
+        fileIndex = nextFileIndex;
+        currentFileSize = 0;
+    }
+}
@@ -0,0 +1,293 @@
+// This file is part of the ATMOSPHERE mobile testing framework.
+// Copyright (C) 2016 MusalaSoft
+//
+// ATMOSPHERE is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// ATMOSPHERE is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with ATMOSPHERE.  If not, see <http://www.gnu.org/licenses/>.
+
+package com.musala.atmosphere.client;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.musala.atmosphere.client.device.log.LogCatLevel;
+
+/**
+ * Keeps the latest LogCat lines received from a device while LogCat logging is started, indexed by tag and by
+ * {@link LogCatLevel level}. The lines can be searched without requesting the device log again. Only a limited count
+ * of lines is kept, the oldest lines are dropped first.
+ *
+ * @author dimcho.nedev
+ *
+ */
+public class LogcatIndex {
+    /**
+     * The default count of lines kept in the index.
+     */
+    public static final int DEFAULT_CAPACITY = 20000;
+
+    /**
+     * Matches the "threadtime" format: <code>MM-DD HH:MM:SS.mmm PID TID L TAG: message</code>.
+     */
+    private static final Pattern THREADTIME_LINE_PATTERN = Pattern.compile("^\\d\\d-\\d\\d\\s+\\d\\d:\\d\\d:\\d\\d\\.\\d+\\s+\\d+\\s+\\d+\\s+([VDIWEF])\\s+(.*?)\\s*: ?(.*)$");
+
+    /**
+     * Matches the "brief" format <code>L/TAG(PID): message</code>, optionally prefixed by a time as in the "time"
+     * format.
+     */
+    private static final Pattern BRIEF_LINE_PATTERN = Pattern.compile("^(?:\\d\\d-\\d\\d\\s+\\d\\d:\\d\\d:\\d\\d\\.\\d+\\s+)?([VDIWEF])/(.*?)\\s*\\(\\s*\\d+\\): ?(.*)$");
+
+    private static final Comparator<LogcatEntry> BY_SEQUENCE_NUMBER = Comparator.comparingLong(LogcatEntry::getSequenceNumber);
+
+    private final int capacity;
+
+    private final Deque<LogcatEntry> entries = new ArrayDeque<>();
+
+    private final Map<String, Deque<LogcatEntry>> entriesByTag = new HashMap<>();
+
+    private final Map<LogCatLevel, Deque<LogcatEntry>> entriesByLevel = new EnumMap<>(LogCatLevel.class);
+
+    private long nextSequenceNumber;
+
+    /**
+     * Creates an index that keeps up to {@link #DEFAULT_CAPACITY} lines.
+     */
+    public LogcatIndex() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an index that keeps up to the given count of lines.
+     *
+     * @param capacity
+     *        - the maximum count of lines kept in the index
+     */
+    public LogcatIndex(int capacity) {
+        if (capacity <= 0) {
+            String message = String.format("Capacity %d is not positive.", capacity);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.capacity = capacity;
+        for (LogCatLevel level : LogCatLevel.values()) {
+            entriesByLevel.put(level, new ArrayDeque<LogcatEntry>());
+        }
+    }
+
+    /**
+     * Adds the given LogCat lines to the index and notifies the threads waiting for a line.
+     *
+     * @param lines
+     *        - the received LogCat lines
+     */
+    synchronized void addLines(List<String> lines) {
+        long receivedTime = System.currentTimeMillis();
+        for (String line : lines) {
+            add(parse(line, receivedTime));
+        }
+
+        notifyAll();
+    }
+
+    /**
+     * Finds the indexed lines with the given or higher priority and the given tag that were received since the given
+     * time.
+     *
+     * @param level
+     *        - the lowest priority of the lines or <code>null</code> to find lines of any priority
+     * @param tag
+     *        - the tag of the lines or <code>null</code> to find lines with any tag
+     * @param since
+     *        - the earliest time, in milliseconds since the epoch, when the lines were received
+     * @return the found {@link LogcatEntry entries} in the order they were received
+     */
+    public synchronized List<LogcatEntry> find(LogCatLevel level, String tag, long since) {
+        List<LogcatEntry> found = new ArrayList<>();
+
+        if (tag != null) {
+            Deque<LogcatEntry> tagEntries = entriesByTag.get(tag);
+            if (tagEntries != null) {
+                collect(tagEntries, level, since, found);
+            }
+        } else if (level == null || level == LogCatLevel.VERBOSE) {
+            collect(entries, level, since, found);
+        } else {
+            for (LogCatLevel entryLevel : LogCatLevel.values()) {
+                if (entryLevel.compareTo(level) >= 0) {
+                    collect(entriesByLevel.get(entryLevel), null, since, found);
+                }
+            }
+            Collections.sort(found, BY_SEQUENCE_NUMBER);
+        }
+
+        return found;
+    }
+
+    /**
+     * Finds all indexed lines with the given or higher priority and the given tag.
+     *
+     * @param level
+     *        - the lowest priority of the lines or <code>null</code> to find lines of any priority
+     * @param tag
+     *        - the tag of the lines or <code>null</code> to find lines with any tag
+     * @return the found {@link LogcatEntry entries} in the order they were received
+     */
+    public List<LogcatEntry> find(LogCatLevel level, String tag) {
+        return find(level, tag, 0);
+    }
+
+    /**
+     * Waits until a line matching the given pattern is indexed. Lines that are already in the index are checked first.
+     *
+     * @param pattern
+     *        - the pattern the whole line should contain a match of
+     * @param timeout
+     *        - the maximum time in milliseconds to wait
+     * @return the first {@link LogcatEntry entry} matching the pattern or <code>null</code> if no such line was received
+     *         before the timeout
+     * @throws InterruptedException
+     *         if the waiting thread is interrupted
+     */
+    public synchronized LogcatEntry awaitLine(Pattern pattern, long timeout) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeout;
+        long checkedSequenceNumber = -1;
+
+        while (true) {
+            // only the lines added since the last check are matched, the newest ones first
+            LogcatEntry firstMatchingEntry = null;
+            Iterator<LogcatEntry> iterator = entries.descendingIterator();
+            while (iterator.hasNext()) {
+                LogcatEntry entry = iterator.next();
+                if (entry.getSequenceNumber() <= checkedSequenceNumber) {
+                    break;
+                }
+                if (pattern.matcher(entry.getLine()).find()) {
+                    firstMatchingEntry = entry;
+                }
+            }
+            if (firstMatchingEntry != null) {
+                return firstMatchingEntry;
+            }
+            checkedSequenceNumber = nextSequenceNumber - 1;
+
+            long remainingTime = deadline - System.currentTimeMillis();
+            if (remainingTime <= 0) {
+                return null;
+            }
+            wait(remainingTime);
+        }
+    }
+
+    /**
+     * Removes all lines from the index.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        entriesByTag.clear();
+        for (Deque<LogcatEntry> levelEntries : entriesByLevel.values()) {
+            levelEntries.clear();
+        }
+    }
+
+    /**
+     * Gets the count of lines in the index.
+     *
+     * @return the count of indexed lines
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private LogcatEntry parse(String line, long receivedTime) {
+        long sequenceNumber = nextSequenceNumber++;
+
+        Matcher matcher = THREADTIME_LINE_PATTERN.matcher(line);
+        if (!matcher.matches()) {
+            matcher = BRIEF_LINE_PATTERN.matcher(line);
+            if (!matcher.matches()) {
+                return new LogcatEntry(sequenceNumber, receivedTime, null, null, line, line);
+            }
+        }
+
+        LogCatLevel level = null;
+        for (LogCatLevel logCatLevel : LogCatLevel.values()) {
+            if (logCatLevel.toString().equals(matcher.group(1))) {
+                level = logCatLevel;
+                break;
+            }
+        }
+
+        return new LogcatEntry(sequenceNumber, receivedTime, level, matcher.group(2), matcher.group(3), line);
+    }
+
+    private void add(LogcatEntry entry) {
+        if (entries.size() == capacity) {
+            evictOldest();
+        }
+
+        entries.addLast(entry);
+        if (entry.getTag() != null) {
+            entriesByTag.computeIfAbsent(entry.getTag(), tag -> new ArrayDeque<LogcatEntry>()).addLast(entry);
+        }
+        if (entry.getLevel() != null) {
+            entriesByLevel.get(entry.getLevel()).addLast(entry);
+        }
+    }
+
+    private void evictOldest() {
+        // all deques are in the order of adding, so the oldest entry is first in each of them
+        LogcatEntry oldest = entries.removeFirst();
+
+        String tag = oldest.getTag();
+        if (tag != null) {
+            Deque<LogcatEntry> tagEntries = entriesByTag.get(tag);
+            tagEntries.removeFirst();
+            if (tagEntries.isEmpty()) {
+                entriesByTag.remove(tag);
+            }
+        }
+        if (oldest.getLevel() != null) {
+            entriesByLevel.get(oldest.getLevel()).removeFirst();
+        }
+    }
+
+    /**
+     * Adds the entries received since the given time and matching the given level to the found ones, in the order of
+     * receiving. The newest entries are checked first, so older entries do not have to be checked at all.
+     */
+    private void collect(Deque<LogcatEntry> candidates, LogCatLevel level, long since, List<LogcatEntry> found) {
+        int firstFoundIndex = found.size();
+        Iterator<LogcatEntry> iterator = candidates.descendingIterator();
+        while (iterator.hasNext()) {
+            LogcatEntry entry = iterator.next();
+            if (entry.getReceivedTime() < since) {
+                break;
+            }
+
+            if (level == null || (entry.getLevel() != null && entry.getLevel().compareTo(level) >= 0)) {
+                found.add(entry);
+            }
+        }
+
+        Collections.reverse(found.subList(firstFoundIndex, found.size()));
+    }
+}
@@ -0,0 +1,247 @@
+// This file is part of the ATMOSPHERE mobile testing framework.
+// Copyright (C) 2016 MusalaSoft
+//
+// ATMOSPHERE is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// ATMOSPHERE is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with ATMOSPHERE.  If not, see <http://www.gnu.org/licenses/>.
+
+package com.musala.atmosphere.client;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+
+import com.musala.atmosphere.commons.RoutingAction;
+import com.musala.atmosphere.commons.util.Pair;
+
+/**
+ * Streams the LogCat of a device into a local file.
+ * <p>
+ * The lines buffered on the agent are fetched on one thread and written on another, connected by a bounded queue. The
+ * fetching waits when the writing falls behind, so the memory used does not grow with the log. The writing takes all
+ * batches fetched meanwhile at once, so a slow disk or console results in fewer and larger writes. The lines are also
+ * added to a {@link LogcatIndex} where they can be searched. The agent is polled
+ * again shortly after it returned lines, and less and less often while it has none, so an idle LogCat does not keep a
+ * request in flight all the time.
+ * </p>
+ *
+ * @author dimcho.nedev
+ *
+ */
+class LogcatStreamer {
+    private static final Logger LOGGER = Logger.getLogger(LogcatStreamer.class.getCanonicalName());
+
+    private static final int MAX_PENDING_BATCHES = 64;
+
+    /**
+     * Time in milliseconds between fetching lines and the next request for lines.
+     */
+    private static final int MIN_POLL_INTERVAL = 50;
+
+    /**
+     * The poll interval is doubled after each empty fetch, up to this many milliseconds.
+     */
+    private static final int MAX_POLL_INTERVAL = 1000;
+
+    private static final List<Pair<Integer, String>> END_OF_STREAM = new ArrayList<>(0);
+
+    private final DeviceCommunicator communicator;
+
+    private final String serialNumber;
+
+    private final LogcatFileWriter logWriter;
+
+    private final LogcatIndex logcatIndex;
+
+    private final BlockingQueue<List<Pair<Integer, String>>> pendingBatches = new ArrayBlockingQueue<>(MAX_PENDING_BATCHES);
+
+    private final CountDownLatch stopSignal = new CountDownLatch(1);
+
+    private volatile boolean running;
+
+    private Thread fetchThread;
+
+    private Thread writeThread;
+
+    /**
+     * Creates a streamer for the LogCat of the device with the given serial number.
+     *
+     * @param communicator
+     *        - the communicator of the device
+     * @param serialNumber
+     *        - serial number of the device
+     * @param logWriter
+     *        - the writer of the fetched lines, closed when the streaming ends
+     * @param logcatIndex
+     *        - the index where the fetched lines are added
+     */
+    LogcatStreamer(DeviceCommunicator communicator,
+                   String serialNumber,
+                   LogcatFileWriter logWriter,
+                   LogcatIndex logcatIndex) {
+        this.communicator = communicator;
+        this.serialNumber = serialNumber;
+        this.logWriter = logWriter;
+        this.logcatIndex = logcatIndex;
+    }
+
+    /**
+     * Starts fetching and writing the LogCat lines.
+     */
+    void start() {
+        running = true;
+        fetchThread = startDaemonThread(this::fetchLines, "atmosphere-logcat-fetch-" + serialNumber);
+        writeThread = startDaemonThread(this::writeLines, "atmosphere-logcat-write-" + serialNumber);
+    }
+
+    /**
+     * Stops fetching LogCat lines. The lines that are already fetched are still written to the file.
+     */
+    void stop() {
+        running = false;
+        stopSignal.countDown();
+    }
+
+    /**
+     * Stops fetching LogCat lines and waits for the request for lines that is in flight, if any, to complete and for
+     * the fetched lines to be written. A new LogCat session should be started on the agent only after that, so its
+     * lines are not fetched by this streamer and the lines of this streamer are not added to the index afterwards.
+     *
+     * @param timeout
+     *        - maximum time in milliseconds to wait
+     * @return <code>true</code> if the fetching and writing have ended, <code>false</code> if the timeout elapsed before
+     *         that
+     * @throws InterruptedException
+     *         if the waiting thread is interrupted
+     */
+    boolean stopAndWait(long timeout) throws InterruptedException {
+        stop();
+
+        if (fetchThread == null) {
+            return true;
+        }
+
+        long deadline = System.currentTimeMillis() + timeout;
+        fetchThread.join(timeout);
+        if (fetchThread.isAlive()) {
+            return false;
+        }
+
+        writeThread.join(Math.max(deadline - System.currentTimeMillis(), 1));
+
+        return !writeThread.isAlive();
+    }
+
+    /**
+     * Waits the given interval before the next request for lines. The waiting ends early when the streaming is
+     * stopped.
+     *
+     * @param pollInterval
+     *        - the interval in milliseconds
+     * @throws InterruptedException
+     *         if the fetching thread is interrupted
+     */
+    void awaitNextPoll(long pollInterval) throws InterruptedException {
+        stopSignal.await(pollInterval, TimeUnit.MILLISECONDS);
+    }
+
+    private Thread startDaemonThread(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        thread.start();
+
+        return thread;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void fetchLines() {
+        long pollInterval = MIN_POLL_INTERVAL;
+        try {
+            while (running) {
+                Object response = communicator.sendAction(RoutingAction.GET_LOGCAT_BUFFER, serialNumber);
+
+                if (response instanceof List && !((List<?>) response).isEmpty()) {
+                    pendingBatches.put((List<Pair<Integer, String>>) response);
+                    pollInterval = MIN_POLL_INTERVAL;
+                } else {
+                    pollInterval = Math.min(pollInterval * 2, MAX_POLL_INTERVAL);
+                }
+
+                awaitNextPoll(pollInterval);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            LOGGER.error(String.format("Fetching the LogCat of device with serial number %s failed.", serialNumber),
+                         e);
+        } finally {
+            running = false;
+            endStream();
+        }
+    }
+
+    private void endStream() {
+        try {
+            pendingBatches.put(END_OF_STREAM);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeLines() {
+        int expectedLineId = 0;
+        List<List<Pair<Integer, String>>> batches = new ArrayList<>(MAX_PENDING_BATCHES);
+        List<String> lines = new ArrayList<>();
+        try (LogcatFileWriter writer = logWriter) {
+            boolean streamEnded = false;
+            while (!streamEnded) {
+                batches.add(pendingBatches.take());
+                pendingBatches.drainTo(batches);
+
+                for (List<Pair<Integer, String>> batch : batches) {
+                    if (batch == END_OF_STREAM) {
+                        streamEnded = true;
+                        break;
+                    }
+
+                    for (Pair<Integer, String> idToLogLine : batch) {
+                        if (expectedLineId != idToLogLine.getKey()) {
+                            LOGGER.error("Some logcat output is missing.");
+                            expectedLineId = idToLogLine.getKey();
+                        }
+                        lines.add(idToLogLine.getValue());
+                        expectedLineId++;
+                    }
+                }
+
+                logcatIndex.addLines(lines);
+                writer.write(lines);
+                writer.flush();
+                batches.clear();
+                lines.clear();
+            }
+        } catch (IOException e) {
+            LOGGER.error(String.format("Storing file for device with serial number %s failed.", serialNumber), e);
+            // nothing more can be written, so the fetching is stopped and does not wait for space in the queue
+            stop();
+            pendingBatches.clear();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
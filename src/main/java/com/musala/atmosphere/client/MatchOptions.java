@@ -0,0 +1,175 @@
+// This file is part of the ATMOSPHERE mobile testing framework.
+// Copyright (C) 2016 MusalaSoft
+//
+// ATMOSPHERE is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// ATMOSPHERE is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with ATMOSPHERE.  If not, see <http://www.gnu.org/licenses/>.
+
+package com.musala.atmosphere.client;
+
+/**
+ * Options of a tolerant search for an {@link Image} in another image. By default only exact matches are accepted.
+ *
+ * @author dimcho.nedev
+ *
+ */
+public class MatchOptions {
+    /**
+     * The default count of downscaled levels searched before the full resolution images are compared.
+     */
+    public static final int DEFAULT_PYRAMID_LEVELS = 4;
+
+    private static final int MAX_CHANNEL_VALUE = 255;
+
+    private int channelTolerance = 0;
+
+    private double similarityThreshold = 1.0;
+
+    private int pyramidLevels = DEFAULT_PYRAMID_LEVELS;
+
+    private boolean isExhaustiveSearch = true;
+
+    /**
+     * Creates options that accept only exact matches.
+     */
+    public MatchOptions() {
+    }
+
+    /**
+     * Creates options with the given tolerance and similarity threshold.
+     *
+     * @param channelTolerance
+     *        - the maximal difference between the values of each color channel of two pixels considered as equal
+     * @param similarityThreshold
+     *        - the minimal fraction of the pixels of the sought image that have to be equal to the pixels at the
+     *        matched location
+     */
+    public MatchOptions(int channelTolerance, double similarityThreshold) {
+        setChannelTolerance(channelTolerance);
+        setSimilarityThreshold(similarityThreshold);
+    }
+
+    /**
+     * Gets the maximal difference between the values of each color channel (alpha, red, green and blue) of two pixels
+     * that are considered as equal.
+     *
+     * @return the tolerance of each color channel
+     */
+    public int getChannelTolerance() {
+        return channelTolerance;
+    }
+
+    /**
+     * Sets the maximal difference between the values of each color channel (alpha, red, green and blue) of two pixels
+     * that are considered as equal.
+     *
+     * @param channelTolerance
+     *        - a value between 0 (exact colors) and 255
+     */
+    public void setChannelTolerance(int channelTolerance) {
+        if (channelTolerance < 0 || channelTolerance > MAX_CHANNEL_VALUE) {
+            String message = String.format("Channel tolerance %d is not between 0 and %d.",
+                                           channelTolerance,
+                                           MAX_CHANNEL_VALUE);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.channelTolerance = channelTolerance;
+    }
+
+    /**
+     * Gets the minimal fraction of the pixels of the sought image that have to be equal to the pixels at the matched
+     * location.
+     *
+     * @return the similarity threshold
+     */
+    public double getSimilarityThreshold() {
+        return similarityThreshold;
+    }
+
+    /**
+     * Sets the minimal fraction of the pixels of the sought image that have to be equal to the pixels at the matched
+     * location.
+     *
+     * @param similarityThreshold
+     *        - a value between 0 and 1, where 1 means all pixels have to be equal
+     */
+    public void setSimilarityThreshold(double similarityThreshold) {
+        if (!(similarityThreshold >= 0 && similarityThreshold <= 1)) {
+            String message = String.format("Similarity threshold %s is not between 0 and 1.", similarityThreshold);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.similarityThreshold = similarityThreshold;
+    }
+
+    /**
+     * Gets the maximal count of downscaled levels of the images that are searched before the full resolution images.
+     *
+     * @return the maximal count of pyramid levels
+     */
+    public int getPyramidLevels() {
+        return pyramidLevels;
+    }
+
+    /**
+     * Sets the maximal count of downscaled levels of the images that are searched before the full resolution images.
+     * Each level halves the size of the images of the previous one and only the best candidate locations found on it
+     * are compared on the next level. Fewer levels are used when the sought image becomes too small. Setting 0 always
+     * compares the full resolution images at every location.
+     *
+     * @param pyramidLevels
+     *        - a non-negative count of levels
+     */
+    public void setPyramidLevels(int pyramidLevels) {
+        if (pyramidLevels < 0) {
+            String message = String.format("Pyramid levels count %d is negative.", pyramidLevels);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.pyramidLevels = pyramidLevels;
+    }
+
+    /**
+     * Checks whether every location is compared at full resolution when no match is found around the candidates of the
+     * downscaled levels.
+     *
+     * @return <code>true</code> if the search falls back to comparing every location, <code>false</code> otherwise
+     */
+    public boolean isExhaustiveSearch() {
+        return isExhaustiveSearch;
+    }
+
+    /**
+     * Sets whether every location is compared at full resolution when no match is found around the candidates of the
+     * downscaled levels. An image with sharp details may rarely look less similar on the downscaled levels at its
+     * actual location than at some other one, and be missed by the search. The fallback finds such images, but makes
+     * each search for an image that is not present as slow as a search without downscaled levels. Enabled by default,
+     * so that the result does not depend on the pyramid levels. Disabling it makes waiting for an image to appear
+     * cheaper, at the cost of rarely missing an image that is present.
+     *
+     * @param isExhaustiveSearch
+     *        - <code>true</code> to compare every location when no candidate matches, <code>false</code> otherwise
+     */
+    public void setExhaustiveSearch(boolean isExhaustiveSearch) {
+        this.isExhaustiveSearch = isExhaustiveSearch;
+    }
+
+    /**
+     * Checks whether these options accept only exact matches.
+     *
+     * @return <code>true</code> if no tolerance is allowed, <code>false</code> otherwise
+     */
+    boolean isExact() {
+        return channelTolerance == 0 && similarityThreshold == 1.0;
+    }
+}
@@ -0,0 +1,307 @@
+// This file is part of the ATMOSPHERE mobile testing framework.
+// Copyright (C) 2016 MusalaSoft
+//
+// ATMOSPHERE is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// ATMOSPHERE is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with ATMOSPHERE.  If not, see <http://www.gnu.org/licenses/>.
+
+package com.musala.atmosphere.client;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Searches for exact occurrences of an image in another image. Both images are given as flat, row-major arrays of ARGB
+ * pixels, so the search works directly on primitive arrays without any per-pixel method calls.
+ * <p>
+ * One row of the sought image is located in each row of the searched image with the Knuth-Morris-Pratt algorithm and
+ * the remaining rows are compared only at the positions where that row matched. Large images can be searched in
+ * parallel, split in bands of rows.
+ * </p>
+ *
+ * @author dimcho.nedev
+ *
+ */
+final class PixelMatcher {
+    /**
+     * Value returned when the sought image is not found.
+     */
+    static final int NOT_FOUND = -1;
+
+    /**
+     * The minimal count of candidate rows searched by a single parallel task.
+     */
+    private static final int MIN_BAND_ROWS = 16;
+
+    /**
+     * The count of bands per worker thread. More bands than threads keep all threads busy when some bands are
+     * searched faster than others.
+     */
+    private static final int BANDS_PER_THREAD = 4;
+
+    private final int[] soughtPixels;
+
+    private final int soughtWidth;
+
+    private final int soughtHeight;
+
+    private final int keyRow;
+
+    private final int keyRowOffset;
+
+    private final int[] keyRowFailure;
+
+    /**
+     * Prepares a matcher for the given sought image.
+     *
+     * @param soughtPixels
+     *        - the ARGB pixels of the sought image in row-major order
+     * @param soughtWidth
+     *        - the width of the sought image
+     * @param soughtHeight
+     *        - the height of the sought image
+     */
+    PixelMatcher(int[] soughtPixels, int soughtWidth, int soughtHeight) {
+        this.soughtPixels = soughtPixels;
+        this.soughtWidth = soughtWidth;
+        this.soughtHeight = soughtHeight;
+        this.keyRow = selectKeyRow();
+        this.keyRowOffset = keyRow * soughtWidth;
+        this.keyRowFailure = buildKeyRowFailure();
+    }
+
+    /**
+     * Finds the first occurrence of the sought image in the given image.
+     *
+     * @param pixels
+     *        - the ARGB pixels of the searched image in row-major order
+     * @param width
+     *        - the width of the searched image
+     * @param height
+     *        - the height of the searched image
+     * @return the index of the upper left pixel of the first occurrence in the searched image, or {@link #NOT_FOUND}
+     */
+    int find(int[] pixels, int width, int height) {
+        return find(pixels, width, height, 0, height - soughtHeight + 1);
+    }
+
+    /**
+     * Finds the first occurrence of the sought image whose top row is in the given range of rows of the searched image.
+     *
+     * @param pixels
+     *        - the ARGB pixels of the searched image in row-major order
+     * @param width
+     *        - the width of the searched image
+     * @param height
+     *        - the height of the searched image
+     * @param fromTop
+     *        - the first row (inclusive) where the top of an occurrence may be
+     * @param toTop
+     *        - the last row (exclusive) where the top of an occurrence may be
+     * @return the index of the upper left pixel of the first occurrence in the searched image, or {@link #NOT_FOUND}
+     */
+    int find(int[] pixels, int width, int height, int fromTop, int toTop) {
+        return find(pixels, width, height, fromTop, toTop, null);
+    }
+
+    /**
+     * Finds the first occurrence of the sought image in the given image by searching bands of rows in parallel. Each
+     * band reports the first occurrence in it and the smallest one is kept, so the result is the same as the one of
+     * {@link #find(int[], int, int)}. The bands and the rows below an already found occurrence are skipped.
+     *
+     * @param pixels
+     *        - the ARGB pixels of the searched image in row-major order
+     * @param width
+     *        - the width of the searched image
+     * @param height
+     *        - the height of the searched image
+     * @param pool
+     *        - the pool that runs the band searches
+     * @return the index of the upper left pixel of the first occurrence in the searched image, or {@link #NOT_FOUND}
+     */
+    int findParallel(int[] pixels, int width, int height, ForkJoinPool pool) {
+        int candidateRows = height - soughtHeight + 1;
+        if (soughtWidth > width || candidateRows <= 0 || soughtWidth == 0 || soughtHeight == 0) {
+            return find(pixels, width, height);
+        }
+
+        int bandRows = Math.max(MIN_BAND_ROWS, candidateRows / (pool.getParallelism() * BANDS_PER_THREAD));
+        AtomicInteger firstIndex = new AtomicInteger(Integer.MAX_VALUE);
+        pool.invoke(new BandSearch(pixels, width, height, 0, candidateRows, bandRows, firstIndex));
+
+        int index = firstIndex.get();
+        return index == Integer.MAX_VALUE ? NOT_FOUND : index;
+    }
+
+    /**
+     * Finds the first occurrence whose top row is in the given range, stopping at the first row that lies below the
+     * first occurrence found so far by the other bands.
+     */
+    private int find(int[] pixels, int width, int height, int fromTop, int toTop, AtomicInteger firstIndex) {
+        if (soughtWidth > width || soughtHeight > height) {
+            return NOT_FOUND;
+        }
+        if (soughtWidth == 0 || soughtHeight == 0) {
+            return 0;
+        }
+
+        int lastTop = Math.min(toTop, height - soughtHeight + 1);
+        for (int top = Math.max(fromTop, 0); top < lastTop; top++) {
+            if (firstIndex != null && firstIndex.get() < top * width) {
+                return NOT_FOUND;
+            }
+
+            int rowStart = (top + keyRow) * width;
+            int rowEnd = rowStart + width;
+            int matched = 0;
+
+            for (int index = rowStart; index < rowEnd; index++) {
+                int pixel = pixels[index];
+                while (matched > 0 && pixel != soughtPixels[keyRowOffset + matched]) {
+                    matched = keyRowFailure[matched - 1];
+                }
+                if (pixel == soughtPixels[keyRowOffset + matched]) {
+                    matched++;
+                }
+
+                if (matched == soughtWidth) {
+                    int left = index - rowStart - soughtWidth + 1;
+                    if (matchesAt(pixels, width, left, top)) {
+                        return top * width + left;
+                    }
+                    matched = keyRowFailure[matched - 1];
+                }
+            }
+        }
+
+        return NOT_FOUND;
+    }
+
+    private boolean matchesAt(int[] pixels, int width, int left, int top) {
+        for (int row = 0; row < soughtHeight; row++) {
+            if (row == keyRow) {
+                continue;
+            }
+
+            int index = (top + row) * width + left;
+            int soughtIndex = row * soughtWidth;
+            for (int column = 0; column < soughtWidth; column++) {
+                if (pixels[index + column] != soughtPixels[soughtIndex + column]) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Selects the row of the sought image with the most color changes. Such a row rarely matches by chance, so fewer
+     * candidate positions have to be verified than with a plain (for example single colored) row.
+     */
+    private int selectKeyRow() {
+        int bestRow = 0;
+        int bestChanges = -1;
+        for (int row = 0; row < soughtHeight; row++) {
+            int rowStart = row * soughtWidth;
+            int changes = 0;
+            for (int column = 1; column < soughtWidth; column++) {
+                if (soughtPixels[rowStart + column] != soughtPixels[rowStart + column - 1]) {
+                    changes++;
+                }
+            }
+
+            if (changes > bestChanges) {
+                bestChanges = changes;
+                bestRow = row;
+            }
+        }
+
+        return bestRow;
+    }
+
+    private int[] buildKeyRowFailure() {
+        int[] failure = new int[soughtWidth];
+        int matched = 0;
+        for (int column = 1; column < soughtWidth; column++) {
+            int pixel = soughtPixels[keyRowOffset + column];
+            while (matched > 0 && pixel != soughtPixels[keyRowOffset + matched]) {
+                matched = failure[matched - 1];
+            }
+            if (pixel == soughtPixels[keyRowOffset + matched]) {
+                matched++;
+            }
+            failure[column] = matched;
+        }
+
+        return failure;
+    }
+
+    /**
+     * Searches a band of candidate rows, splitting it in two halves while it is larger than the band size. Each band
+     * reads the rows of its candidates and the sought image height below them, so neighbouring bands overlap. The first
+     * occurrence found in the band lowers the shared first index if it is smaller.
+     */
+    private class BandSearch extends RecursiveAction {
+        private static final long serialVersionUID = 4381936507328512961L;
+
+        private final int[] pixels;
+
+        private final int width;
+
+        private final int height;
+
+        private final int fromTop;
+
+        private final int toTop;
+
+        private final int bandRows;
+
+        private final AtomicInteger firstIndex;
+
+        BandSearch(int[] pixels,
+                   int width,
+                   int height,
+                   int fromTop,
+                   int toTop,
+                   int bandRows,
+                   AtomicInteger firstIndex) {
+            this.pixels = pixels;
+            this.width = width;
+            this.height = height;
+            this.fromTop = fromTop;
+            this.toTop = toTop;
+            this.bandRows = bandRows;
+            this.firstIndex = firstIndex;
+        }
+
+        @Override
+        protected void compute() {
+            if (firstIndex.get() < fromTop * width) {
+                return;
+            }
+
+            if (toTop - fromTop <= bandRows) {
+                int index = find(pixels, width, height, fromTop, toTop, firstIndex);
+                if (index != NOT_FOUND) {
+                    firstIndex.accumulateAndGet(index, Math::min);
+                }
+                return;
+            }
+
+            int middle = (fromTop + toTop) >>> 1;
+            invokeAll(new BandSearch(pixels, width, height, fromTop, middle, bandRows, firstIndex),
+                      new BandSearch(pixels, width, height, middle, toTop, bandRows, firstIndex));
+        }
+    }
+}
@@ -0,0 +1,388 @@
+// This file is part of the ATMOSPHERE mobile testing framework.
+// Copyright (C) 2016 MusalaSoft
+//
+// ATMOSPHERE is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// ATMOSPHERE is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with ATMOSPHERE.  If not, see <http://www.gnu.org/licenses/>.
+
+package com.musala.atmosphere.client;
+
+import java.util.BitSet;
+
+import com.musala.atmosphere.commons.geometry.Point;
+
+/**
+ * Searches for an image in another image, tolerating small color differences and a part of differing pixels. Both
+ * images are given as flat, row-major arrays of ARGB pixels.
+ * <p>
+ * The images are downscaled to a pyramid of levels, each one half the size of the previous. The coarsest level is
+ * searched at every location for the locations with the smallest color difference, and only the surroundings of these
+ * candidates are searched on the finer levels. The full resolution images are compared with the requested tolerance
+ * only around the candidates that remain on the finest downscaled level, and at every location if none of them matches,
+ * unless the {@link MatchOptions#setExhaustiveSearch(boolean) exhaustive search} was disabled.
+ * </p>
+ *
+ * @author dimcho.nedev
+ *
+ */
+final class PyramidMatcher {
+    /**
+     * The minimal size of the sought image on the coarsest level. Smaller images have too few details to tell the
+     * right location from the wrong ones.
+     */
+    private static final int MIN_SOUGHT_SIZE = 8;
+
+    private static final int CANDIDATES_PER_LEVEL = 16;
+
+    /**
+     * The distance around the scaled location of a candidate, that is searched on the next finer level. It covers the
+     * rounding of the location when downscaling and the neighbours suppressed in favour of the candidate.
+     */
+    private static final int REFINE_RADIUS = 3;
+
+    private final int channelTolerance;
+
+    private final double similarityThreshold;
+
+    private final int maxLevels;
+
+    private final boolean isExhaustiveSearch;
+
+    /**
+     * Creates a matcher with the given options.
+     *
+     * @param options
+     *        - the tolerance, similarity threshold and pyramid levels of the search
+     */
+    PyramidMatcher(MatchOptions options) {
+        this.channelTolerance = options.getChannelTolerance();
+        this.similarityThreshold = options.getSimilarityThreshold();
+        this.maxLevels = options.getPyramidLevels();
+        this.isExhaustiveSearch = options.isExhaustiveSearch();
+    }
+
+    /**
+     * Finds the location where the sought image is most similar to the searched image.
+     *
+     * @param pixels
+     *        - the ARGB pixels of the searched image in row-major order
+     * @param width
+     *        - the width of the searched image
+     * @param height
+     *        - the height of the searched image
+     * @param soughtPixels
+     *        - the ARGB pixels of the sought image in row-major order
+     * @param soughtWidth
+     *        - the width of the sought image
+     * @param soughtHeight
+     *        - the height of the sought image
+     * @return the best {@link ImageMatch} reaching the similarity threshold, or <code>null</code> if there is no such
+     */
+    ImageMatch find(int[] pixels, int width, int height, int[] soughtPixels, int soughtWidth, int soughtHeight) {
+        if (soughtWidth > width || soughtHeight > height || soughtWidth == 0 || soughtHeight == 0) {
+            return null;
+        }
+
+        int levels = 0;
+        while (levels < maxLevels && Math.min(soughtWidth, soughtHeight) >> (levels + 1) >= MIN_SOUGHT_SIZE) {
+            levels++;
+        }
+
+        Level searchedLevel = new Level(pixels, width, height);
+        Level soughtLevel = new Level(soughtPixels, soughtWidth, soughtHeight);
+        if (levels == 0) {
+            return findBestMatch(searchedLevel, soughtLevel, null);
+        }
+
+        Level[] searchedPyramid = new Level[levels + 1];
+        Level[] soughtPyramid = new Level[levels + 1];
+        searchedPyramid[0] = searchedLevel;
+        soughtPyramid[0] = soughtLevel;
+        for (int level = 1; level <= levels; level++) {
+            searchedPyramid[level] = searchedPyramid[level - 1].downscale();
+            soughtPyramid[level] = soughtPyramid[level - 1].downscale();
+        }
+
+        Candidates candidates = new Candidates(CANDIDATES_PER_LEVEL);
+        Level coarsestSearched = searchedPyramid[levels];
+        Level coarsestSought = soughtPyramid[levels];
+        for (int y = 0; y <= coarsestSearched.height - coarsestSought.height; y++) {
+            for (int x = 0; x <= coarsestSearched.width - coarsestSought.width; x++) {
+                candidates.offer(x, y, difference(coarsestSearched, coarsestSought, x, y, candidates.bound()));
+            }
+        }
+
+        for (int level = levels - 1; level > 0; level--) {
+            Level searched = searchedPyramid[level];
+            Level sought = soughtPyramid[level];
+            Candidates refinedCandidates = new Candidates(CANDIDATES_PER_LEVEL);
+            BitSet visited = new BitSet();
+
+            for (int i = 0; i < candidates.count; i++) {
+                int centerX = candidates.xs[i] * 2;
+                int centerY = candidates.ys[i] * 2;
+                for (int y = Math.max(0, centerY - REFINE_RADIUS); y <= Math.min(searched.height - sought.height,
+                                                                                  centerY + REFINE_RADIUS); y++) {
+                    for (int x = Math.max(0, centerX - REFINE_RADIUS); x <= Math.min(searched.width - sought.width,
+                                                                                      centerX + REFINE_RADIUS); x++) {
+                        int location = y * searched.width + x;
+                        if (!visited.get(location)) {
+                            visited.set(location);
+                            refinedCandidates.offer(x,
+                                                    y,
+                                                    difference(searched, sought, x, y, refinedCandidates.bound()));
+                        }
+                    }
+                }
+            }
+
+            candidates = refinedCandidates;
+        }
+
+        // The downscaled sought image is aligned to the downscaled searched image only at locations divisible by the
+        // scale, so an image with sharp details may look less similar at its actual location than at some plain one.
+        // Searching the whole image keeps such images from being missed. It costs as much as a search without a pyramid
+        // when the image is not present, so it can be disabled when a rare miss is cheaper than a slow rejection.
+        ImageMatch match = findBestMatch(searchedLevel, soughtLevel, candidates);
+        return match != null || !isExhaustiveSearch ? match : findBestMatch(searchedLevel, soughtLevel, null);
+    }
+
+    /**
+     * Compares the full resolution images with the requested tolerance around the given candidates, or at every
+     * location when no candidates are given.
+     */
+    private ImageMatch findBestMatch(Level searched, Level sought, Candidates candidates) {
+        int soughtPixelsCount = sought.width * sought.height;
+        int allowedMismatches = soughtPixelsCount - (int) Math.ceil(similarityThreshold * soughtPixelsCount);
+        int bestMismatches = -1;
+        int bestX = 0;
+        int bestY = 0;
+
+        int maxX = searched.width - sought.width;
+        int maxY = searched.height - sought.height;
+        if (candidates == null) {
+            for (int y = 0; y <= maxY && bestMismatches != 0; y++) {
+                for (int x = 0; x <= maxX && bestMismatches != 0; x++) {
+                    int mismatches = countMismatches(searched, sought, x, y, allowedMismatches);
+                    if (mismatches <= allowedMismatches) {
+                        bestMismatches = mismatches;
+                        bestX = x;
+                        bestY = y;
+                        allowedMismatches = mismatches - 1;
+                    }
+                }
+            }
+        } else {
+            BitSet visited = new BitSet();
+            for (int i = 0; i < candidates.count && bestMismatches != 0; i++) {
+                int centerX = candidates.xs[i] * 2;
+                int centerY = candidates.ys[i] * 2;
+                for (int y = Math.max(0, centerY - REFINE_RADIUS); y <= Math.min(maxY, centerY + REFINE_RADIUS); y++) {
+                    for (int x = Math.max(0, centerX - REFINE_RADIUS); x <= Math.min(maxX, centerX + REFINE_RADIUS); x++) {
+                        int location = y * searched.width + x;
+                        if (visited.get(location)) {
+                            continue;
+                        }
+                        visited.set(location);
+
+                        int mismatches = countMismatches(searched, sought, x, y, allowedMismatches);
+                        if (mismatches <= allowedMismatches) {
+                            bestMismatches = mismatches;
+                            bestX = x;
+                            bestY = y;
+                            allowedMismatches = mismatches - 1;
+                        }
+                    }
+                }
+            }
+        }
+
+        if (bestMismatches < 0) {
+            return null;
+        }
+
+        double score = (double) (soughtPixelsCount - bestMismatches) / soughtPixelsCount;
+        return new ImageMatch(new Point(bestX, bestY), score);
+    }
+
+    /**
+     * Counts the pixels of the sought image that differ from the searched image at the given location by more than the
+     * tolerance in any channel. Stops counting once the count exceeds the given limit.
+     */
+    private int countMismatches(Level searched, Level sought, int left, int top, int limit) {
+        int mismatches = 0;
+        for (int row = 0; row < sought.height; row++) {
+            int index = (top + row) * searched.width + left;
+            int soughtIndex = row * sought.width;
+            for (int column = 0; column < sought.width; column++) {
+                int pixel = searched.pixels[index + column];
+                int soughtPixel = sought.pixels[soughtIndex + column];
+                if (pixel != soughtPixel && !isWithinTolerance(pixel, soughtPixel)) {
+                    mismatches++;
+                    if (mismatches > limit) {
+                        return mismatches;
+                    }
+                }
+            }
+        }
+
+        return mismatches;
+    }
+
+    private boolean isWithinTolerance(int pixel, int soughtPixel) {
+        for (int shift = 0; shift < Integer.SIZE; shift += Byte.SIZE) {
+            int channelDifference = ((pixel >>> shift) & 0xff) - ((soughtPixel >>> shift) & 0xff);
+            if (channelDifference > channelTolerance || channelDifference < -channelTolerance) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Sums the channel differences of all pixels of the sought image and the searched image at the given location.
+     * Stops summing once the sum reaches the given bound.
+     */
+    private static long difference(Level searched, Level sought, int left, int top, long bound) {
+        long difference = 0;
+        for (int row = 0; row < sought.height && difference < bound; row++) {
+            int index = (top + row) * searched.width + left;
+            int soughtIndex = row * sought.width;
+            for (int column = 0; column < sought.width; column++) {
+                int pixel = searched.pixels[index + column];
+                int soughtPixel = sought.pixels[soughtIndex + column];
+                difference += Math.abs((pixel >>> 24) - (soughtPixel >>> 24))
+                        + Math.abs(((pixel >>> 16) & 0xff) - ((soughtPixel >>> 16) & 0xff))
+                        + Math.abs(((pixel >>> 8) & 0xff) - ((soughtPixel >>> 8) & 0xff))
+                        + Math.abs((pixel & 0xff) - (soughtPixel & 0xff));
+            }
+        }
+
+        return difference;
+    }
+
+    /**
+     * An image of the pyramid.
+     */
+    private static class Level {
+        private final int[] pixels;
+
+        private final int width;
+
+        private final int height;
+
+        Level(int[] pixels, int width, int height) {
+            this.pixels = pixels;
+            this.width = width;
+            this.height = height;
+        }
+
+        /**
+         * Creates an image with half the width and height of this one, where each pixel is the average of four pixels.
+         */
+        Level downscale() {
+            int scaledWidth = width / 2;
+            int scaledHeight = height / 2;
+            int[] scaledPixels = new int[scaledWidth * scaledHeight];
+
+            for (int y = 0; y < scaledHeight; y++) {
+                int index = 2 * y * width;
+                for (int x = 0; x < scaledWidth; x++, index += 2) {
+                    scaledPixels[y * scaledWidth + x] = average(pixels[index],
+                                                                pixels[index + 1],
+                                                                pixels[index + width],
+                                                                pixels[index + width + 1]);
+                }
+            }
+
+            return new Level(scaledPixels, scaledWidth, scaledHeight);
+        }
+
+        private static int average(int first, int second, int third, int fourth) {
+            int average = 0;
+            for (int shift = 0; shift < Integer.SIZE; shift += Byte.SIZE) {
+                int sum = ((first >>> shift) & 0xff) + ((second >>> shift) & 0xff) + ((third >>> shift) & 0xff)
+                        + ((fourth >>> shift) & 0xff);
+                average |= ((sum + 2) >> 2) << shift;
+            }
+
+            return average;
+        }
+    }
+
+    /**
+     * The locations with the smallest differences found on a level, ordered by difference. Of two neighbouring
+     * locations only the better one is kept, so the candidates are not all gathered around a single similar region.
+     */
+    private static class Candidates {
+        private final int[] xs;
+
+        private final int[] ys;
+
+        private final long[] differences;
+
+        private int count;
+
+        Candidates(int capacity) {
+            xs = new int[capacity];
+            ys = new int[capacity];
+            differences = new long[capacity];
+        }
+
+        /**
+         * Gets the difference a location has to be below to become a candidate.
+         */
+        long bound() {
+            return count == differences.length ? differences[count - 1] : Long.MAX_VALUE;
+        }
+
+        void offer(int x, int y, long difference) {
+            if (difference >= bound()) {
+                return;
+            }
+
+            for (int i = 0; i < count; i++) {
+                if (isNeighbour(i, x, y) && differences[i] <= difference) {
+                    return;
+                }
+            }
+
+            int kept = 0;
+            for (int i = 0; i < count; i++) {
+                if (!isNeighbour(i, x, y)) {
+                    xs[kept] = xs[i];
+                    ys[kept] = ys[i];
+                    differences[kept] = differences[i];
+                    kept++;
+                }
+            }
+            count = kept;
+
+            int position = count < differences.length ? count : count - 1;
+            while (position > 0 && differences[position - 1] > difference) {
+                xs[position] = xs[position - 1];
+                ys[position] = ys[position - 1];
+                differences[position] = differences[position - 1];
+                position--;
+            }
+            xs[position] = x;
+            ys[position] = y;
+            differences[position] = difference;
+            count = Math.min(count + 1, differences.length);
+        }
+
+        private boolean isNeighbour(int index, int x, int y) {
+            return Math.abs(xs[index] - x) <= 1 && Math.abs(ys[index] - y) <= 1;
+        }
+    }
+}
@@ -16,6 +16,7 @@
 
 package com.musala.atmosphere.client;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -58,11 +59,14 @@ public class Screen {
 
     private final AccessibilityElementUtils elementUtils;
 
+    private final UiChangeMonitor uiChangeMonitor;
+
     private WebView webview;
 
-    Screen(DeviceCommunicator communicator) {
+    Screen(DeviceCommunicator communicator, UiChangeMonitor uiChangeMonitor) {
         this.communicator = communicator;
         this.elementUtils = new AccessibilityElementUtils(communicator);
+        this.uiChangeMonitor = uiChangeMonitor;
     }
 
     /**
@@ -80,6 +84,22 @@ public class Screen {
         return elementUtils.getElements(selector, visibleOnly);
     }
 
+    /**
+     * Takes a snapshot of all visible UI elements present on the {@link Screen active screen}. The elements are fetched
+     * with a single request and the returned {@link ScreenSnapshot snapshot} answers selector, XPath and CSS queries
+     * locally. Useful when many elements of the same screen should be located.
+     *
+     * @return a {@link ScreenSnapshot snapshot} of the visible UI elements
+     */
+    @SuppressWarnings("unchecked")
+    public ScreenSnapshot snapshot() {
+        List<AccessibilityElement> elements = (List<AccessibilityElement>) communicator.sendAction(RoutingAction.EXECUTE_XPATH_QUERY,
+                                                                                                   ScreenSnapshot.ALL_ELEMENTS_XPATH_QUERY,
+                                                                                                   true);
+
+        return new ScreenSnapshot(elements, elementUtils, communicator);
+    }
+
     /**
      * Gets a list with all UI elements present on the {@link Screen active screen} and matching the given selector.
      *
@@ -520,6 +540,64 @@ public class Screen {
         return elementUtils.waitForWindowUpdate(packageName, timeout);
     }
 
+    /**
+     * Crops the given UI elements as images from a single screenshot. Much faster than calling
+     * {@link UiElement#getElementImage()} for each element, as the screenshot is taken and decoded only once.
+     *
+     * @param elements
+     *        - the {@link UiElement UI elements} to be cropped
+     * @return a list with the {@link Image images} of the elements in the order of the passed elements
+     * @throws IOException
+     *         if getting screenshot from the device fails
+     */
+    public List<Image> getElementImages(List<UiElement> elements) throws IOException {
+        if (elements.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        return UiElement.getElementImages(communicator, elements);
+    }
+
+    /**
+     * Registers a listener that is notified each time the content of a window changes. Unlike
+     * {@link #waitForWindowUpdate(String, int)} the calling thread is not blocked, and all listeners of the device are
+     * served by at most one short pending request to the device. A window update is usually noticed within a second,
+     * but an update between two requests is noticed only if the window is updated again. The listener stays registered
+     * until it is removed with
+     * {@link #removeWindowChangeListener(UiChangeListener)} or the device is released.
+     *
+     * @param packageName
+     *        - the specified window package name (can be null). If null, the listener is notified for updates of any
+     *        front-end window
+     * @param listener
+     *        - the {@link UiChangeListener listener} to be notified
+     */
+    public void onWindowChange(String packageName, UiChangeListener listener) {
+        uiChangeMonitor.addListener(packageName, listener);
+    }
+
+    /**
+     * Removes a listener registered with {@link #onWindowChange(String, UiChangeListener)}.
+     *
+     * @param listener
+     *        - the {@link UiChangeListener listener} to be removed
+     */
+    public void removeWindowChangeListener(UiChangeListener listener) {
+        uiChangeMonitor.removeListener(listener);
+    }
+
+    /**
+     * Gets the current UI generation number of the device. The number increases each time a window update is
+     * observed for a registered {@link UiChangeListener listener}. A changed number means that results of earlier
+     * queries (for example a {@link ScreenSnapshot snapshot}) are outdated, while an unchanged number is only a hint
+     * that they are still valid, as updates between the observing requests can be missed.
+     *
+     * @return the current UI generation number
+     */
+    public long getUiGeneration() {
+        return uiChangeMonitor.getGeneration();
+    }
+
     /**
      * Gets the present {@link WebView} on the active screen.
      *
@@ -0,0 +1,432 @@
+// This file is part of the ATMOSPHERE mobile testing framework.
+// Copyright (C) 2016 MusalaSoft
+//
+// ATMOSPHERE is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// ATMOSPHERE is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with ATMOSPHERE.  If not, see <http://www.gnu.org/licenses/>.
+
+package com.musala.atmosphere.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+
+import org.apache.log4j.Logger;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import com.musala.atmosphere.client.exceptions.InvalidCssQueryException;
+import com.musala.atmosphere.client.exceptions.MultipleElementsFoundException;
+import com.musala.atmosphere.client.uiutils.AccessibilityElementUtils;
+import com.musala.atmosphere.client.uiutils.CssToXPathConverter;
+import com.musala.atmosphere.commons.RoutingAction;
+import com.musala.atmosphere.commons.exceptions.UiElementFetchingException;
+import com.musala.atmosphere.commons.geometry.Bounds;
+import com.musala.atmosphere.commons.geometry.Point;
+import com.musala.atmosphere.commons.ui.selector.UiElementSelector;
+import com.musala.atmosphere.commons.ui.tree.AccessibilityElement;
+
+/**
+ * An immutable view of the UI elements that were present on the {@link Screen screen} at the moment the snapshot was
+ * taken. The elements are fetched from the device with a single request and all {@link UiElementSelector selector},
+ * XPath and CSS queries are then answered locally, without a round trip to the device. The returned
+ * {@link UiElement UI elements} are regular elements, so operations on them (taps, swipes, text input, etc.) are
+ * still executed on the device.
+ * <p>
+ * The elements are indexed in document order, but the parent-child relations between them are not available on the
+ * client side. XPath queries that navigate the hierarchy (for example <code>//*[@className='a']/*</code>) are
+ * therefore executed on the device.
+ * </p>
+ * <p>
+ * <b>Note:</b> The snapshot is not thread safe and it is not updated when the screen changes. Take a new snapshot
+ * after an operation that changes the screen content.
+ * </p>
+ *
+ * @author dimcho.nedev
+ *
+ */
+public class ScreenSnapshot {
+    private static final Logger LOGGER = Logger.getLogger(ScreenSnapshot.class.getCanonicalName());
+
+    /**
+     * XPath query matching all elements on the screen.
+     */
+    static final String ALL_ELEMENTS_XPATH_QUERY = "//*";
+
+    private static final String ROOT_NODE_NAME = "hierarchy";
+
+    private static final String ELEMENT_NODE_NAME = "node";
+
+    private static final String ELEMENT_POSITION_ATTRIBUTE = "snapshotPosition";
+
+    private static final String BOUNDS_FORMAT = "[%d,%d][%d,%d]";
+
+    private final List<AccessibilityElement> elements;
+
+    private final Map<String, List<AccessibilityElement>> elementsByText = new HashMap<>();
+
+    private final Map<String, XPathExpression> compiledQueries = new HashMap<>();
+
+    private final AccessibilityElementUtils elementUtils;
+
+    private final DeviceCommunicator communicator;
+
+    private final XPath xpath = XPathFactory.newInstance().newXPath();
+
+    private final Document document;
+
+    private final long actionEpoch;
+
+    private final long creationTime;
+
+    ScreenSnapshot(List<AccessibilityElement> elements,
+            AccessibilityElementUtils elementUtils,
+            DeviceCommunicator communicator) {
+        this.elements = elements != null ? new ArrayList<>(elements) : new ArrayList<AccessibilityElement>();
+        this.elementUtils = elementUtils;
+        this.communicator = communicator;
+        this.document = buildDocument();
+        this.actionEpoch = communicator.getActionEpoch();
+        this.creationTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Gets the count of all elements in this snapshot.
+     *
+     * @return the count of the elements that were present on the screen when the snapshot was taken
+     */
+    public int size() {
+        return elements.size();
+    }
+
+    /**
+     * Gets a list with all UI elements in this snapshot matching the given selector.
+     *
+     * @param selector
+     *        - contains the matching criteria
+     * @return list with all UI elements in the snapshot matching the given selector
+     * @throws UiElementFetchingException
+     *         if no elements are found
+     */
+    public List<UiElement> getElements(UiElementSelector selector) throws UiElementFetchingException {
+        String cssQuery = selector.buildCssQuery();
+        if (cssQuery == null || cssQuery.isEmpty()) {
+            return getAllElementsByXPath(ALL_ELEMENTS_XPATH_QUERY);
+        }
+
+        return getAllElementsByCSS(cssQuery);
+    }
+
+    /**
+     * Gets the UI element in this snapshot matching the given selector.
+     *
+     * @param selector
+     *        - contains the matching criteria
+     * @return the found {@link UiElement UI element}
+     * @throws MultipleElementsFoundException
+     *         if more than one element is found matching the given selector
+     * @throws UiElementFetchingException
+     *         if no element is found matching the given selector
+     */
+    public UiElement getElement(UiElementSelector selector)
+        throws MultipleElementsFoundException,
+            UiElementFetchingException {
+        return getSingleElement(getElements(selector), selector.buildCssQuery());
+    }
+
+    /**
+     * Searches for UI elements in this snapshot using the given CSS query.
+     * <p>
+     * <b>Note:</b> Two-word attributes should be written in camelCase. For example content-desc should be contentDesc.
+     * </p>
+     *
+     * @param cssQuery
+     *        - CSS selector query
+     * @return list containing all found elements
+     * @throws InvalidCssQueryException
+     *         if the passed argument is invalid CSS query
+     * @throws UiElementFetchingException
+     *         if no elements are found for the passed query
+     */
+    public List<UiElement> getAllElementsByCSS(String cssQuery)
+        throws InvalidCssQueryException,
+            UiElementFetchingException {
+        String xpathQuery = CssToXPathConverter.convertCssToXPath(cssQuery);
+
+        return getAllElementsByXPath(xpathQuery);
+    }
+
+    /**
+     * Searches for a UI element in this snapshot using the given CSS query.
+     *
+     * @param cssQuery
+     *        - CSS selector query
+     * @return the requested {@link UiElement UiElement}
+     * @throws InvalidCssQueryException
+     *         if the passed argument is invalid CSS query
+     * @throws MultipleElementsFoundException
+     *         if more than one element is found for the passed query
+     * @throws UiElementFetchingException
+     *         if no elements are found for the passed query
+     */
+    public UiElement getElementByCSS(String cssQuery)
+        throws InvalidCssQueryException,
+            MultipleElementsFoundException,
+            UiElementFetchingException {
+        return getSingleElement(getAllElementsByCSS(cssQuery), cssQuery);
+    }
+
+    /**
+     * Searches for UI elements in this snapshot using the given XPath query.
+     * <p>
+     * <b>Note:</b> Two-word attributes should be written in camelCase. For example content-desc should be contentDesc.
+     * </p>
+     *
+     * @param xpathQuery
+     *        - an XPath query that should match the elements
+     * @return list containing all found elements
+     * @throws UiElementFetchingException
+     *         if no elements are found for the passed query
+     */
+    public List<UiElement> getAllElementsByXPath(String xpathQuery) throws UiElementFetchingException {
+        if (isHierarchicalQuery(xpathQuery)) {
+            List<AccessibilityElement> foundElements = executeQueryOnDevice(xpathQuery);
+            if (foundElements.isEmpty()) {
+                throw new UiElementFetchingException("No elements found matching the given xpath query.");
+            }
+
+            return elementUtils.wrapAccessibilityElements(foundElements);
+        }
+
+        List<AccessibilityElement> foundElements = executeQuery(xpathQuery);
+        if (foundElements.isEmpty()) {
+            throw new UiElementFetchingException("No elements found matching the given xpath query.");
+        }
+
+        List<UiElement> uiElements = elementUtils.wrapAccessibilityElements(foundElements);
+        for (UiElement uiElement : uiElements) {
+            // the elements were present when the snapshot was taken, not when they were wrapped
+            uiElement.confirmPresence(actionEpoch, creationTime);
+        }
+
+        return uiElements;
+    }
+
+    /**
+     * Searches for a UI element in this snapshot using the given XPath query.
+     *
+     * @param xpathQuery
+     *        - an XPath query that should match the element
+     * @return the requested {@link UiElement UiElement}
+     * @throws MultipleElementsFoundException
+     *         if more than one element is found for the passed query
+     * @throws UiElementFetchingException
+     *         if no elements are found for the passed query
+     */
+    public UiElement getElementByXPath(String xpathQuery)
+        throws MultipleElementsFoundException,
+            UiElementFetchingException {
+        return getSingleElement(getAllElementsByXPath(xpathQuery), xpathQuery);
+    }
+
+    /**
+     * Checks if this snapshot contains an element displaying exactly the supplied text.
+     *
+     * @param text
+     *        - search text
+     * @return <code>true</code> if an element with the supplied text was present on the screen, <code>false</code>
+     *         otherwise
+     */
+    public boolean hasElementWithText(String text) {
+        return elementsByText.containsKey(text);
+    }
+
+    /**
+     * Checks whether the query navigates between elements (child, parent or ancestor steps, etc.) or depends on the
+     * position of the elements among their siblings, instead of only filtering the elements by their attributes.
+     */
+    private static boolean isHierarchicalQuery(String xpathQuery) {
+        String query = xpathQuery.trim();
+        if (!query.startsWith(ALL_ELEMENTS_XPATH_QUERY)) {
+            return true;
+        }
+
+        StringBuilder predicate = new StringBuilder();
+        int bracketsDepth = 0;
+        char quote = 0;
+        for (int i = ALL_ELEMENTS_XPATH_QUERY.length(); i < query.length(); i++) {
+            char current = query.charAt(i);
+            if (quote != 0) {
+                if (current == quote) {
+                    quote = 0;
+                }
+            } else if (current == '\'' || current == '"') {
+                quote = current;
+            } else if (current == '[') {
+                if (bracketsDepth++ == 0) {
+                    predicate.setLength(0);
+                    continue;
+                }
+            } else if (current == ']') {
+                if (--bracketsDepth == 0 && isStructuralPredicate(predicate.toString())) {
+                    return true;
+                }
+            } else if (bracketsDepth == 0) {
+                // anything outside a predicate is another location step
+                return true;
+            }
+
+            if (quote == 0) {
+                predicate.append(current);
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean isStructuralPredicate(String predicate) {
+        String trimmedPredicate = predicate.trim();
+
+        return trimmedPredicate.isEmpty() || Character.isDigit(trimmedPredicate.charAt(0))
+                || trimmedPredicate.contains("/") || trimmedPredicate.contains("::") || trimmedPredicate.contains("..")
+                || trimmedPredicate.contains("position(") || trimmedPredicate.contains("last(");
+    }
+
+    private List<AccessibilityElement> executeQuery(String xpathQuery) throws UiElementFetchingException {
+        try {
+            XPathExpression expression = compiledQueries.get(xpathQuery);
+            if (expression == null) {
+                expression = xpath.compile(xpathQuery);
+                compiledQueries.put(xpathQuery, expression);
+            }
+
+            NodeList foundNodes = (NodeList) expression.evaluate(document, XPathConstants.NODESET);
+            List<AccessibilityElement> foundElements = new ArrayList<>();
+            for (int i = 0; i < foundNodes.getLength(); i++) {
+                Element node = (Element) foundNodes.item(i);
+                if (node.hasAttribute(ELEMENT_POSITION_ATTRIBUTE)) {
+                    int position = Integer.parseInt(node.getAttribute(ELEMENT_POSITION_ATTRIBUTE));
+                    foundElements.add(elements.get(position));
+                }
+            }
+
+            return foundElements;
+        } catch (XPathExpressionException e) {
+            String message = String.format("Evaluating the xpath query %s failed.", xpathQuery);
+            LOGGER.error(message, e);
+            throw new UiElementFetchingException(message);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<AccessibilityElement> executeQueryOnDevice(String xpathQuery) {
+        LOGGER.debug(String.format("The xpath query %s depends on the element hierarchy and will be executed on the device.",
+                                   xpathQuery));
+
+        List<AccessibilityElement> foundElements = (List<AccessibilityElement>) communicator.sendAction(RoutingAction.EXECUTE_XPATH_QUERY,
+                                                                                                        xpathQuery,
+                                                                                                        true);
+        return foundElements != null ? foundElements : Collections.<AccessibilityElement> emptyList();
+    }
+
+    private static UiElement getSingleElement(List<UiElement> foundElements, String query)
+        throws MultipleElementsFoundException {
+        int foundElementsCount = foundElements.size();
+        if (foundElementsCount > 1) {
+            throw new MultipleElementsFoundException(String.format("Searching for a single UiElement but %d that match the given properties %s were found.",
+                                                                   foundElementsCount,
+                                                                   query));
+        }
+
+        return foundElements.get(0);
+    }
+
+    private Document buildDocument() {
+        Document snapshotDocument;
+        try {
+            snapshotDocument = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException("Could not create a document for the screen snapshot.", e);
+        }
+
+        Element root = snapshotDocument.createElement(ROOT_NODE_NAME);
+        snapshotDocument.appendChild(root);
+
+        for (int position = 0; position < elements.size(); position++) {
+            AccessibilityElement element = elements.get(position);
+
+            Element node = snapshotDocument.createElement(ELEMENT_NODE_NAME);
+            node.setAttribute(ELEMENT_POSITION_ATTRIBUTE, Integer.toString(position));
+            setAttribute(node, "bounds", formatBounds(element.getBounds()));
+            setAttribute(node, "checkable", element.isCheckable());
+            setAttribute(node, "checked", element.isChecked());
+            setAttribute(node, "className", element.getClassName());
+            setAttribute(node, "clickable", element.isClickable());
+            setAttribute(node, "contentDesc", element.getContentDescriptor());
+            setAttribute(node, "enabled", element.isEnabled());
+            setAttribute(node, "focusable", element.isFocusable());
+            setAttribute(node, "focused", element.isFocused());
+            setAttribute(node, "index", element.getIndex());
+            setAttribute(node, "longClickable", element.isLongClickable());
+            setAttribute(node, "package", element.getPackageName());
+            setAttribute(node, "resourceId", element.getResourceId());
+            setAttribute(node, "scrollable", element.isScrollable());
+            setAttribute(node, "selected", element.isSelected());
+            setAttribute(node, "text", element.getText());
+            root.appendChild(node);
+
+            String text = element.getText();
+            if (text != null) {
+                List<AccessibilityElement> elementsWithText = elementsByText.get(text);
+                if (elementsWithText == null) {
+                    elementsWithText = new ArrayList<>();
+                    elementsByText.put(text, elementsWithText);
+                }
+                elementsWithText.add(element);
+            }
+        }
+
+        return snapshotDocument;
+    }
+
+    private static void setAttribute(Element node, String attributeName, Object value) {
+        if (value != null) {
+            node.setAttribute(attributeName, String.valueOf(value));
+        }
+    }
+
+    private static String formatBounds(Bounds bounds) {
+        if (bounds == null) {
+            return null;
+        }
+
+        Point upperLeftCorner = bounds.getUpperLeftCorner();
+        Point lowerRightCorner = bounds.getLowerRightCorner();
+
+        return String.format(BOUNDS_FORMAT,
+                             upperLeftCorner.getX(),
+                             upperLeftCorner.getY(),
+                             lowerRightCorner.getX(),
+                             lowerRightCorner.getY());
+    }
+}
@@ -0,0 +1,71 @@
+// This file is part of the ATMOSPHERE mobile testing framework.
+// Copyright (C) 2016 MusalaSoft
+//
+// ATMOSPHERE is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// ATMOSPHERE is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with ATMOSPHERE.  If not, see <http://www.gnu.org/licenses/>.
+
+package com.musala.atmosphere.client;
+
+/**
+ * Describes an observed change of the UI on the device {@link Screen screen}.
+ *
+ * @author dimcho.nedev
+ *
+ */
+public class UiChangeEvent {
+    private final String packageName;
+
+    private final long generation;
+
+    private final long timestamp;
+
+    UiChangeEvent(String packageName, long generation, long timestamp) {
+        this.packageName = packageName;
+        this.generation = generation;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Gets the package name of the window the listener was subscribed for.
+     *
+     * @return the package name of the window or <code>null</code> if the listener is notified for changes in any
+     *         window
+     */
+    public String getPackageName() {
+        return packageName;
+    }
+
+    /**
+     * Gets the UI generation number after the change. The generation numbers of a device only increase, so a query
+     * result obtained at the same generation number is still up to date.
+     *
+     * @return the UI generation number after the change
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Gets the time at which the change was received on the client.
+     *
+     * @return the time in milliseconds since the epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("UiChangeEvent [packageName=%s, generation=%d]", packageName, generation);
+    }
+}
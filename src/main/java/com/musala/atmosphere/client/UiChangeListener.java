@@ -0,0 +1,37 @@
+// This file is part of the ATMOSPHERE mobile testing framework.
+// Copyright (C) 2016 MusalaSoft
+//
+// ATMOSPHERE is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// ATMOSPHERE is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with ATMOSPHERE.  If not, see <http://www.gnu.org/licenses/>.
+
+package com.musala.atmosphere.client;
+
+/**
+ * Listener that is notified when the content of a window on the device {@link Screen screen} changes.
+ *
+ * @see Screen#onWindowChange(String, UiChangeListener)
+ *
+ * @author dimcho.nedev
+ *
+ */
+public interface UiChangeListener {
+    /**
+     * Called when a window content update is observed. The method is never invoked on the thread that receives the
+     * server messages, but long running work should still be moved to a separate thread, because it delays the
+     * delivery of the next events.
+     *
+     * @param event
+     *        - the {@link UiChangeEvent event} describing the change
+     */
+    void onUiChange(UiChangeEvent event);
+}
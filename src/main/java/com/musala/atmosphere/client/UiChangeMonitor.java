@@ -0,0 +1,256 @@
+// This file is part of the ATMOSPHERE mobile testing framework.
+// Copyright (C) 2016 MusalaSoft
+//
+// ATMOSPHERE is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// ATMOSPHERE is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with ATMOSPHERE.  If not, see <http://www.gnu.org/licenses/>.
+
+package com.musala.atmosphere.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+
+import com.musala.atmosphere.client.exceptions.DeviceReleasedException;
+import com.musala.atmosphere.commons.RoutingAction;
+
+/**
+ * Observes the window content updates on a device and notifies the registered {@link UiChangeListener listeners}.
+ * <p>
+ * At most one short window update wait is pending on the agent for the whole device, so the observation never holds a
+ * request open for long in front of the other actions of the device. The observed packages are waited for in turns.
+ * While the windows do not change, the interval between the waits grows, so an idle screen costs few requests. The
+ * waits are issued only while there are registered listeners. A window update that happens between two waits is
+ * noticed only if the window is updated again during a wait.
+ * </p>
+ *
+ * @author dimcho.nedev
+ *
+ */
+class UiChangeMonitor {
+    private static final Logger LOGGER = Logger.getLogger(UiChangeMonitor.class.getCanonicalName());
+
+    /**
+     * Maximum time in milliseconds for a single window update wait on the agent.
+     */
+    private static final int MAX_WINDOW_UPDATE_WAIT_TIME = 1000;
+
+    /**
+     * Interval in milliseconds between the end of a wait and the start of the next one after a window update.
+     */
+    private static final int MIN_WINDOW_UPDATE_WAIT_INTERVAL = 100;
+
+    /**
+     * Maximum interval in milliseconds between two waits, reached while no window updates are observed or while the
+     * waits fail.
+     */
+    private static final int MAX_WINDOW_UPDATE_WAIT_INTERVAL = 2000;
+
+    /**
+     * Key used for the listeners that are notified for changes in any window, as concurrent maps do not allow
+     * <code>null</code> keys.
+     */
+    private static final String ANY_PACKAGE = "";
+
+    private final DeviceCommunicator communicator;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private final ConcurrentMap<String, List<UiChangeListener>> listeners = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService waitScheduler;
+
+    private int windowUpdateWaitTime;
+
+    private int windowUpdateWaitInterval = MIN_WINDOW_UPDATE_WAIT_INTERVAL;
+
+    private int nextPackageIndex;
+
+    private boolean isObserving;
+
+    private volatile boolean stopped;
+
+    UiChangeMonitor(DeviceCommunicator communicator) {
+        this.communicator = communicator;
+    }
+
+    /**
+     * Registers a listener for the window content updates of the given package.
+     *
+     * @param packageName
+     *        - package name of the observed window or <code>null</code> to observe any window
+     * @param listener
+     *        - the listener to be notified
+     */
+    void addListener(String packageName, UiChangeListener listener) {
+        if (stopped) {
+            throw new DeviceReleasedException("The device you are trying to use is released.");
+        }
+
+        String packageKey = packageName == null ? ANY_PACKAGE : packageName;
+        listeners.computeIfAbsent(packageKey, key -> new CopyOnWriteArrayList<UiChangeListener>()).add(listener);
+
+        startObserving();
+    }
+
+    /**
+     * Unregisters the given listener from all packages it was registered for.
+     *
+     * @param listener
+     *        - the listener to be removed
+     */
+    void removeListener(UiChangeListener listener) {
+        for (List<UiChangeListener> packageListeners : listeners.values()) {
+            packageListeners.remove(listener);
+        }
+    }
+
+    /**
+     * Gets the current UI generation number. The number increases each time a window content update is observed.
+     *
+     * @return the current UI generation number
+     */
+    long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Stops observing the device and removes all listeners.
+     */
+    synchronized void stop() {
+        stopped = true;
+        listeners.clear();
+
+        if (waitScheduler != null) {
+            waitScheduler.shutdownNow();
+        }
+    }
+
+    private void startObserving() {
+        synchronized (this) {
+            if (isObserving || stopped) {
+                return;
+            }
+            isObserving = true;
+
+            if (waitScheduler == null) {
+                waitScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "atmosphere-ui-change-monitor");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                windowUpdateWaitTime = Math.max(1,
+                                                Math.min(MAX_WINDOW_UPDATE_WAIT_TIME,
+                                                         communicator.getResponseWaitTimeout() / 2));
+            }
+        }
+
+        waitForUpdate();
+    }
+
+    private void waitForUpdate() {
+        String packageKey = nextObservedPackage();
+        if (packageKey == null) {
+            return;
+        }
+
+        String packageName = ANY_PACKAGE.equals(packageKey) ? null : packageKey;
+
+        communicator.sendActionAsync(RoutingAction.WAIT_FOR_WINDOW_UPDATE, packageName, windowUpdateWaitTime)
+                    .whenComplete((result, throwable) -> onWaitCompleted(packageKey, result, throwable));
+    }
+
+    /**
+     * Selects the next package to wait for, in turns. Stops the observation when no package has listeners.
+     *
+     * @return the key of the next observed package or <code>null</code> if the observation stopped
+     */
+    private synchronized String nextObservedPackage() {
+        List<String> observedPackages = new ArrayList<>();
+        for (Map.Entry<String, List<UiChangeListener>> packageListeners : listeners.entrySet()) {
+            if (!packageListeners.getValue().isEmpty()) {
+                observedPackages.add(packageListeners.getKey());
+            }
+        }
+
+        if (stopped || observedPackages.isEmpty()) {
+            isObserving = false;
+            return null;
+        }
+
+        nextPackageIndex = (nextPackageIndex + 1) % observedPackages.size();
+        return observedPackages.get(nextPackageIndex);
+    }
+
+    private void onWaitCompleted(String packageKey, Object result, Throwable throwable) {
+        Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+        if (cause instanceof DeviceReleasedException) {
+            stop();
+            return;
+        }
+
+        int nextWaitDelay;
+        synchronized (this) {
+            if (Boolean.TRUE.equals(result)) {
+                windowUpdateWaitInterval = MIN_WINDOW_UPDATE_WAIT_INTERVAL;
+            } else if (throwable != null || result == null) {
+                LOGGER.debug("Waiting for a window update failed, the wait will be retried.", throwable);
+                windowUpdateWaitInterval = MAX_WINDOW_UPDATE_WAIT_INTERVAL;
+            } else {
+                // no update during the wait, or the observed package is not in the foreground
+                windowUpdateWaitInterval = Math.min(MAX_WINDOW_UPDATE_WAIT_INTERVAL, windowUpdateWaitInterval * 2);
+            }
+            nextWaitDelay = windowUpdateWaitInterval;
+        }
+
+        if (Boolean.TRUE.equals(result)) {
+            notifyListeners(packageKey);
+        }
+
+        try {
+            waitScheduler.schedule(() -> waitForUpdate(), nextWaitDelay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            synchronized (this) {
+                isObserving = false;
+            }
+        }
+    }
+
+    private void notifyListeners(String packageKey) {
+        List<UiChangeListener> packageListeners = listeners.get(packageKey);
+        if (packageListeners == null) {
+            return;
+        }
+
+        String packageName = ANY_PACKAGE.equals(packageKey) ? null : packageKey;
+        UiChangeEvent event = new UiChangeEvent(packageName, generation.incrementAndGet(), System.currentTimeMillis());
+
+        for (UiChangeListener listener : packageListeners) {
+            try {
+                listener.onUiChange(event);
+            } catch (RuntimeException e) {
+                LOGGER.error("A UI change listener failed while handling " + event, e);
+            }
+        }
+    }
+}
@@ -20,7 +20,10 @@ import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 import javax.imageio.ImageIO;
 import javax.xml.xpath.XPathExpressionException;
@@ -33,7 +36,6 @@ import com.musala.atmosphere.client.exceptions.InvalidCssQueryException;
 import com.musala.atmosphere.client.exceptions.MultipleElementsFoundException;
 import com.musala.atmosphere.client.exceptions.StaleElementReferenceException;
 import com.musala.atmosphere.client.uiutils.AccessibilityElementUtils;
-import com.musala.atmosphere.commons.DeviceInformation;
 import com.musala.atmosphere.commons.RoutingAction;
 import com.musala.atmosphere.commons.ScreenOrientation;
 import com.musala.atmosphere.commons.beans.SwipeDirection;
@@ -54,10 +56,19 @@ import com.musala.atmosphere.commons.util.Pair;
  */
 public abstract class UiElement {
 
-    private static final long UI_ELEMENT_OPERATION_WAIT_TIME = 500;
+    /**
+     * The UI is considered idle when no window content updates occur for this many milliseconds.
+     */
+    private static final int UI_IDLE_PERIOD = 100;
 
     private static final long TIMEOUT_BEFORE_SELECT_ALL = 4000;
 
+    /**
+     * Time in milliseconds for which the presence of an element on the screen is considered confirmed after the element
+     * was fetched or revalidated, provided that no other action was sent to the device in the meantime.
+     */
+    private static final long PRESENCE_CONFIRMATION_VALIDITY = 500;
+
     private static final Logger LOGGER = Logger.getLogger(UiElement.class);
 
     protected UiElementPropertiesContainer propertiesContainer;
@@ -68,15 +79,21 @@ public abstract class UiElement {
 
     protected AccessibilityElementUtils elementUtils;
 
+    private long presenceConfirmationEpoch;
+
+    private long presenceConfirmationTime;
+
     UiElement(UiElementPropertiesContainer properties, AccessibilityElementUtils elementUtils, DeviceCommunicator communicator) {
         this.propertiesContainer = properties;
         this.communicator = communicator;
         this.elementUtils = elementUtils;
         isStale = false;
+        confirmPresence(communicator.getActionEpoch(), System.currentTimeMillis());
     }
 
     UiElement(UiElement uiElement, AccessibilityElementUtils elementUtils, DeviceCommunicator communicator) {
         this(uiElement.propertiesContainer, elementUtils, communicator);
+        confirmPresence(uiElement.presenceConfirmationEpoch, uiElement.presenceConfirmationTime);
     }
 
     /**
@@ -649,13 +666,42 @@ public abstract class UiElement {
      *         if the revalidation fails
      */
     protected void revalidateThrowing() {
-        if (!revalidate()) {
-            String message = "Element revalidation failed. This element is most likely not present on the screen anymore.";
-            LOGGER.error(message);
-            throw new StaleElementReferenceException(message);
+        if (!isPresenceConfirmed()) {
+            if (!revalidate()) {
+                String message = "Element revalidation failed. This element is most likely not present on the screen anymore.";
+                LOGGER.error(message);
+                throw new StaleElementReferenceException(message);
+            }
         }
     }
 
+    /**
+     * Records that this element was present on the screen at the given time.
+     *
+     * @param actionEpoch
+     *        - the {@link DeviceCommunicator#getActionEpoch() action epoch} right after the check
+     * @param confirmationTime
+     *        - the time of the check in milliseconds
+     */
+    void confirmPresence(long actionEpoch, long confirmationTime) {
+        presenceConfirmationEpoch = actionEpoch;
+        presenceConfirmationTime = confirmationTime;
+    }
+
+    /**
+     * Checks whether this element was fetched or revalidated so recently that checking its presence again on the
+     * device is redundant. This is the case when the element was found just before the operation, for example
+     * <code>screen.getElement(selector).tap()</code>, and saves a round trip to the device for such operations. Any
+     * action that can change the screen, sent to the device in the meantime (by this or any other element, by the
+     * {@link Device} or by another thread), makes the presence be checked again.
+     */
+    private boolean isPresenceConfirmed() {
+        long presenceConfirmationAge = System.currentTimeMillis() - presenceConfirmationTime;
+
+        return presenceConfirmationEpoch == communicator.getActionEpoch()
+                && presenceConfirmationAge >= 0 && presenceConfirmationAge <= PRESENCE_CONFIRMATION_VALIDITY;
+    }
+
     /**
      * Marks this element as stale.
      */
@@ -666,10 +712,40 @@ public abstract class UiElement {
     private void finalizeUiElementOperation() {
         // Should be invoked exactly once in the end of all element-operating
         // methods, whether its directly or indirectly invoked.
-        try {
-            Thread.sleep(UI_ELEMENT_OPERATION_WAIT_TIME);
-        } catch (InterruptedException e) {
-            LOGGER.info(e);
+        int timeout = communicator.getPostActionWaitTimeout();
+
+        switch (communicator.getPostActionWaitPolicy()) {
+            case NONE:
+                break;
+            case FIXED_DELAY:
+                try {
+                    Thread.sleep(timeout);
+                } catch (InterruptedException e) {
+                    LOGGER.info(e);
+                }
+                break;
+            case WAIT_FOR_IDLE:
+                waitForIdle(timeout);
+                break;
+        }
+    }
+
+    /**
+     * Waits on the device until no window content update occurs for {@link #UI_IDLE_PERIOD} or the given timeout
+     * elapses.
+     */
+    private void waitForIdle(int timeout) {
+        long deadline = System.currentTimeMillis() + timeout;
+        long remainingTime = timeout;
+
+        while (remainingTime > 0) {
+            int waitTime = (int) Math.min(UI_IDLE_PERIOD, remainingTime);
+            Object isWindowUpdated = communicator.sendAction(RoutingAction.WAIT_FOR_WINDOW_UPDATE, null, waitTime);
+            if (!Boolean.TRUE.equals(isWindowUpdated)) {
+                break;
+            }
+
+            remainingTime = deadline - System.currentTimeMillis();
         }
     }
 
@@ -681,23 +757,54 @@ public abstract class UiElement {
      *         - if getting screenshot from the device fails
      */
     public Image getElementImage() throws IOException {
-        byte[] imageInByte = (byte[]) communicator.sendAction(RoutingAction.GET_SCREENSHOT);
+        List<UiElement> elements = new ArrayList<>();
+        elements.add(this);
+
+        return getElementImages(communicator, elements).get(0);
+    }
+
+    /**
+     * Crops the given elements as images from a single screenshot of the device. The screen orientation is requested
+     * together with the screenshot and the device resolution is requested only once per device.
+     *
+     * @param communicator
+     *        - the communicator of the device the elements are on
+     * @param elements
+     *        - the elements to be cropped
+     * @return a list with the {@link Image images} of the elements in the order of the passed elements
+     * @throws IOException
+     *         - if getting screenshot from the device fails
+     */
+    static List<Image> getElementImages(DeviceCommunicator communicator, List<UiElement> elements) throws IOException {
+        CompletableFuture<Object> screenOrientationFuture = communicator.sendActionAsync(RoutingAction.GET_SCREEN_ORIENTATION);
+        byte[] imageInByte = communicator.sendBase64Action(RoutingAction.GET_SCREENSHOT);
+        if (imageInByte == null) {
+            throw new IOException("Getting screenshot from the device failed.");
+        }
+
         InputStream inputStream = new ByteArrayInputStream(imageInByte);
         BufferedImage bufferedImage = ImageIO.read(inputStream);
+        Image screenshot = new Image(bufferedImage);
 
-        Bounds elementBounds = propertiesContainer.getBounds();
-        Pair<Integer, Integer> resolution = getDeviceResolution();
-        ScreenOrientation screenOrientation = (ScreenOrientation) communicator.sendAction(RoutingAction.GET_SCREEN_ORIENTATION);
+        Pair<Integer, Integer> resolution = communicator.getDeviceResolution();
+        Object screenOrientation;
+        try {
+            screenOrientation = screenOrientationFuture.get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new IOException("Getting the screen orientation from the device failed.", e);
+        }
 
-        Image newImage = new Image(bufferedImage);
-        return newImage.getSubimage(elementBounds, screenOrientation, resolution);
-    }
+        if (!(screenOrientation instanceof ScreenOrientation) || resolution == null) {
+            throw new IOException("Getting the screen orientation or the resolution from the device failed.");
+        }
 
-    private Pair<Integer, Integer> getDeviceResolution() {
-        // TODO: Move the device information in a entity, or think for a better way to pass it to the UiElement.
-        DeviceInformation deviceInformation = (DeviceInformation) communicator.sendAction(RoutingAction.GET_DEVICE_INFORMATION);
+        List<Image> elementImages = new ArrayList<>(elements.size());
+        for (UiElement element : elements) {
+            Bounds elementBounds = element.propertiesContainer.getBounds();
+            elementImages.add(screenshot.getSubimage(elementBounds, (ScreenOrientation) screenOrientation, resolution));
+        }
 
-        return deviceInformation.getResolution();
+        return elementImages;
     }
 
     /**
@@ -16,8 +16,10 @@
 
 package com.musala.atmosphere.client.uiutils;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -43,6 +45,8 @@ import com.musala.atmosphere.commons.ui.tree.AccessibilityElement;
 public class AccessibilityElementUtils {
     private static final Logger LOGGER = Logger.getLogger(AccessibilityElementUtils.class);
 
+    private static final MethodHandle ACCESSIBILITY_UI_ELEMENT_CONSTRUCTOR = findAccessibilityUiElementConstructor();
+
     private DeviceCommunicator communicator;
 
     public AccessibilityElementUtils(DeviceCommunicator communicator) {
@@ -60,18 +64,17 @@ public class AccessibilityElementUtils {
      * @throws UiElementFetchingException
      *         if no element was found matching the given selector
      */
-    @SuppressWarnings("unchecked")
     public List<UiElement> getElements(UiElementSelector selector, Boolean visibleOnly)
             throws UiElementFetchingException {
+        // The elements are usually present already, so they are requested directly and the implicit wait is only
+        // used when nothing was found. This saves a round trip to the device for each successful lookup.
+        List<AccessibilityElement> foundElements = fetchElements(selector, visibleOnly);
 
         int implicitWaitTimeout = ConfigurationPropertiesLoader.getImplicitWaitTimeout();
-        if (implicitWaitTimeout != 0) {
-            waitForElementExists(selector, implicitWaitTimeout);
+        if (foundElements.isEmpty() && implicitWaitTimeout != 0 && waitForElementExists(selector, implicitWaitTimeout)) {
+            foundElements = fetchElements(selector, visibleOnly);
         }
 
-        List<AccessibilityElement> foundElements = (List<AccessibilityElement>) communicator.sendAction(RoutingAction.GET_UI_ELEMENTS,
-                                                                                                        selector,
-                                                                                                        visibleOnly);
         if (foundElements.isEmpty()) {
             throw new UiElementFetchingException("No elements found matching the given selector.");
         }
@@ -79,6 +82,14 @@ public class AccessibilityElementUtils {
         return wrapAccessibilityElements(foundElements);
     }
 
+    @SuppressWarnings("unchecked")
+    private List<AccessibilityElement> fetchElements(UiElementSelector selector, Boolean visibleOnly) {
+        List<AccessibilityElement> foundElements = (List<AccessibilityElement>) communicator.sendAction(RoutingAction.GET_UI_ELEMENTS,
+                                                                                                        selector,
+                                                                                                        visibleOnly);
+        return foundElements != null ? foundElements : new ArrayList<AccessibilityElement>();
+    }
+
     /**
      * Gets a {@link UiElement} matching the given selector.
      *
@@ -189,29 +200,57 @@ public class AccessibilityElementUtils {
      * @return list of {@link UiElement}
      */
     public List<UiElement> wrapAccessibilityElements(List<AccessibilityElement> accessibilityElements) {
-        List<UiElement> wrappedElements = new ArrayList<>();
+        List<UiElement> wrappedElements = new ArrayList<>(accessibilityElements.size());
+        if (ACCESSIBILITY_UI_ELEMENT_CONSTRUCTOR == null) {
+            LOGGER.error("Failed to access the AccessibilityUiElement constructor.");
+            return wrappedElements;
+        }
 
         for (AccessibilityElement element : accessibilityElements) {
-            // TODO : After removing the screen move the entities in one package with the AccessibilityUiElement and use
-            // directly the constructor.
             try {
-                Constructor<?> accessibilityUiElementConstructor = AccessibilityUiElement.class.getDeclaredConstructor(AccessibilityElement.class,
-                                                                                                                       AccessibilityElementUtils.class,
-                                                                                                                       DeviceCommunicator.class);
-                accessibilityUiElementConstructor.setAccessible(true);
-
-                wrappedElements.add((AccessibilityUiElement) accessibilityUiElementConstructor.newInstance(new Object[] {
-                        element, this, communicator}));
-            } catch (NoSuchMethodException | SecurityException | InstantiationException | IllegalAccessException
-                    | IllegalArgumentException | InvocationTargetException e) {
-                LOGGER.error("Failed to access the AccessibilityUiElement constructor, or the parameters passed to the constructor are illegal"
-                        + e);
+                wrappedElements.add((UiElement) ACCESSIBILITY_UI_ELEMENT_CONSTRUCTOR.invokeExact(element,
+                                                                                                 this,
+                                                                                                 communicator));
+            } catch (RuntimeException e) {
+                // thrown by the constructor itself, as the handle type matches the arguments
+                LOGGER.error("The parameters passed to the AccessibilityUiElement constructor are illegal: " + element,
+                             e);
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                // the constructor declares no checked exceptions
+                throw new IllegalStateException("Creating an AccessibilityUiElement failed.", e);
             }
         }
 
         return wrappedElements;
     }
 
+    /**
+     * Resolves the AccessibilityUiElement constructor once, so wrapping large lists of elements does not pay for the
+     * reflective lookup and the access checks for each element.
+     */
+    private static MethodHandle findAccessibilityUiElementConstructor() {
+        // TODO : After removing the screen move the entities in one package with the AccessibilityUiElement and use
+        // directly the constructor.
+        try {
+            Constructor<AccessibilityUiElement> constructor = AccessibilityUiElement.class.getDeclaredConstructor(AccessibilityElement.class,
+                                                                                                                  AccessibilityElementUtils.class,
+                                                                                                                  DeviceCommunicator.class);
+            constructor.setAccessible(true);
+
+            return MethodHandles.lookup()
+                                .unreflectConstructor(constructor)
+                                .asType(MethodType.methodType(UiElement.class,
+                                                              AccessibilityElement.class,
+                                                              AccessibilityElementUtils.class,
+                                                              DeviceCommunicator.class));
+        } catch (NoSuchMethodException | SecurityException | IllegalAccessException e) {
+            LOGGER.error("Failed to access the AccessibilityUiElement constructor" + e);
+            return null;
+        }
+    }
+
     /**
      * Waits for the existence of a given UiElement with a given timeout.
      *
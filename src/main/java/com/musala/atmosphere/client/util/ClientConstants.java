@@ -32,4 +32,42 @@ public class ClientConstants {
      * A default name of the logcat log.
      */
     public static final String DEAFAULT_LOG_FILENAME = "device.log";
+
+    /**
+     * The default size in bytes of the chunks in which an APK file is uploaded.
+     */
+    public static final int DEFAULT_APK_UPLOAD_CHUNK_SIZE = 1024 * 1024; // 1 MB
+
+    /**
+     * The default maximum number of APK chunks that are sent without waiting for their confirmation. The chunks carry no
+     * offset, so each chunk waits for the previous one to be appended unless a larger window is configured.
+     */
+    public static final int DEFAULT_APK_UPLOAD_WINDOW_SIZE = 1;
+
+    /**
+     * The default policy for waiting after an operation on a UI element, the same fixed wait as before the policies
+     * were introduced.
+     */
+    public static final PostActionWaitPolicy DEFAULT_POST_ACTION_WAIT_POLICY = PostActionWaitPolicy.FIXED_DELAY;
+
+    /**
+     * The default maximum time in milliseconds to wait after an operation on a UI element.
+     */
+    public static final int DEFAULT_POST_ACTION_WAIT_TIMEOUT = 500;
+
+    /**
+     * Whether the LogCat lines are printed on the console by default.
+     */
+    public static final boolean DEFAULT_LOGCAT_CONSOLE_ECHO = true;
+
+    /**
+     * Whether the LogCat files are compressed with gzip by default.
+     */
+    public static final boolean DEFAULT_LOGCAT_COMPRESS = false;
+
+    /**
+     * The default size in bytes after which the LogCat output continues in a new file. <code>0</code> writes the whole
+     * output in a single file.
+     */
+    public static final long DEFAULT_LOGCAT_MAX_FILE_SIZE = 0;
 }
@@ -30,7 +30,14 @@ public enum ConfigurationProperties {
     FTP_DIR("ftp.dir"),
     IMPLICIT_WAIT_TIMEOUT("implicit.wait.timeout"),
     RESPONSE_WAIT_TIMEOUT("response.wait.timeout"),
-    DEVICE_WAIT_TIMEOUT("device.wait.timeout");
+    DEVICE_WAIT_TIMEOUT("device.wait.timeout"),
+    APK_UPLOAD_CHUNK_SIZE("apk.upload.chunkSize"),
+    APK_UPLOAD_WINDOW_SIZE("apk.upload.windowSize"),
+    POST_ACTION_WAIT_POLICY("post.action.wait.policy"),
+    POST_ACTION_WAIT_TIMEOUT("post.action.wait.timeout"),
+    LOGCAT_CONSOLE_ECHO("logcat.console.echo"),
+    LOGCAT_COMPRESS("logcat.compress"),
+    LOGCAT_MAX_FILE_SIZE("logcat.max.file.size");
 
     private String value;
 
@@ -38,6 +38,10 @@ public class ConfigurationPropertiesLoader {
 
     private static Integer implicitWaitTimeout;
 
+    private static volatile PostActionWaitPolicy postActionWaitPolicy;
+
+    private static volatile Integer postActionWaitTimeout;
+
     /**
      * Gets the desired property from the config file in String type.
      *
@@ -206,6 +210,231 @@ public class ConfigurationPropertiesLoader {
         return Integer.parseInt(waitForDeviceTimeout);
     }
 
+    /**
+     * Gets the size in bytes of the chunks in which an APK file is uploaded to the device.
+     *
+     * @return the APK upload chunk size in bytes
+     */
+    public static int getApkUploadChunkSize() {
+        return getOptionalPositiveIntProperty(ConfigurationProperties.APK_UPLOAD_CHUNK_SIZE,
+                                              ClientConstants.DEFAULT_APK_UPLOAD_CHUNK_SIZE);
+    }
+
+    /**
+     * Gets the maximum number of APK chunks that are sent without waiting for their confirmation. A window larger than
+     * <code>1</code> should only be configured for Agents that append the chunks in the order of their arrival.
+     *
+     * @return the APK upload window size
+     */
+    public static int getApkUploadWindowSize() {
+        return getOptionalPositiveIntProperty(ConfigurationProperties.APK_UPLOAD_WINDOW_SIZE,
+                                              ClientConstants.DEFAULT_APK_UPLOAD_WINDOW_SIZE);
+    }
+
+    /**
+     * Gets the policy for waiting after an operation on a UI element, loaded from the config file. It applies to the
+     * devices that have no policy of their own.
+     *
+     * @return the post action {@link PostActionWaitPolicy wait policy}
+     */
+    public static PostActionWaitPolicy getPostActionWaitPolicy() {
+        if (postActionWaitPolicy == null) {
+            postActionWaitPolicy = loadPostActionWaitPolicy();
+        }
+
+        return postActionWaitPolicy;
+    }
+
+    /**
+     * Gets the maximum time in milliseconds to wait after an operation on a UI element, loaded from the config file. It
+     * applies to the devices that have no policy of their own. A timeout of <code>0</code> disables the wait.
+     *
+     * @return the post action wait timeout in milliseconds
+     */
+    public static int getPostActionWaitTimeout() {
+        if (postActionWaitTimeout == null) {
+            postActionWaitTimeout = getOptionalNonNegativeIntProperty(ConfigurationProperties.POST_ACTION_WAIT_TIMEOUT,
+                                                                      ClientConstants.DEFAULT_POST_ACTION_WAIT_TIMEOUT);
+        }
+
+        return postActionWaitTimeout;
+    }
+
+    private static PostActionWaitPolicy loadPostActionWaitPolicy() {
+        if (!isConfigExists()) {
+            return ClientConstants.DEFAULT_POST_ACTION_WAIT_POLICY;
+        }
+
+        String policyValue = getPropertyString(ConfigurationProperties.POST_ACTION_WAIT_POLICY);
+        if (policyValue == null || policyValue.trim().isEmpty()) {
+            return ClientConstants.DEFAULT_POST_ACTION_WAIT_POLICY;
+        }
+
+        PostActionWaitPolicy policy = PostActionWaitPolicy.fromValue(policyValue.trim());
+        if (policy == null) {
+            String errorMessage = String.format("%s should be one of %s, %s or %s.",
+                                                ConfigurationProperties.POST_ACTION_WAIT_POLICY,
+                                                PostActionWaitPolicy.NONE,
+                                                PostActionWaitPolicy.FIXED_DELAY,
+                                                PostActionWaitPolicy.WAIT_FOR_IDLE);
+            LOGGER.error(errorMessage);
+            throw new InvalidPropertyValueExceptipon(errorMessage);
+        }
+
+        return policy;
+    }
+
+    /**
+     * Returns whether the LogCat lines are printed on the console while they are written to the log file.
+     *
+     * @return <code>true</code> if the LogCat lines are printed on the console, otherwise returns <code>false</code>
+     */
+    public static boolean isLogcatConsoleEchoEnabled() {
+        return getOptionalBooleanProperty(ConfigurationProperties.LOGCAT_CONSOLE_ECHO,
+                                          ClientConstants.DEFAULT_LOGCAT_CONSOLE_ECHO);
+    }
+
+    /**
+     * Returns whether the LogCat files are compressed with gzip.
+     *
+     * @return <code>true</code> if the LogCat files are compressed, otherwise returns <code>false</code>
+     */
+    public static boolean isLogcatCompressionEnabled() {
+        return getOptionalBooleanProperty(ConfigurationProperties.LOGCAT_COMPRESS,
+                                          ClientConstants.DEFAULT_LOGCAT_COMPRESS);
+    }
+
+    /**
+     * Gets the size in bytes of the LogCat lines after which the output continues in a new file.
+     *
+     * @return the maximum LogCat file size in bytes or <code>0</code> if the whole output is written in a single file
+     */
+    public static long getLogcatMaxFileSize() {
+        return getOptionalNonNegativeLongProperty(ConfigurationProperties.LOGCAT_MAX_FILE_SIZE,
+                                                  ClientConstants.DEFAULT_LOGCAT_MAX_FILE_SIZE);
+    }
+
+    /**
+     * Gets an optional boolean property from the config file.
+     *
+     * @param property
+     *        - the configuration property to be returned
+     * @param defaultValue
+     *        - the value used when the config file or the property is missing
+     * @return the property value or the default value if the property is not set
+     */
+    private static boolean getOptionalBooleanProperty(ConfigurationProperties property, boolean defaultValue) {
+        if (!isConfigExists()) {
+            return defaultValue;
+        }
+
+        String propertyValue = getPropertyString(property);
+        if (propertyValue == null || propertyValue.trim().isEmpty()) {
+            return defaultValue;
+        }
+
+        return Boolean.parseBoolean(propertyValue.trim());
+    }
+
+    /**
+     * Gets an optional positive integer property from the config file.
+     *
+     * @param property
+     *        - the configuration property to be returned
+     * @param defaultValue
+     *        - the value used when the config file or the property is missing
+     * @return the property value or the default value if the property is not set
+     */
+    private static int getOptionalPositiveIntProperty(ConfigurationProperties property, int defaultValue) {
+        if (!isConfigExists()) {
+            return defaultValue;
+        }
+
+        String propertyValue = getPropertyString(property);
+        if (propertyValue == null || propertyValue.trim().isEmpty()) {
+            return defaultValue;
+        }
+
+        try {
+            int value = Integer.parseInt(propertyValue.trim());
+            if (value > 0) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // handled below
+        }
+
+        String errorMessage = String.format("%s should be a positive integer number.", property);
+        LOGGER.error(errorMessage);
+        throw new InvalidPropertyValueExceptipon(errorMessage);
+    }
+
+    /**
+     * Gets an optional nonnegative integer property from the config file.
+     *
+     * @param property
+     *        - the configuration property to be returned
+     * @param defaultValue
+     *        - the value used when the config file or the property is missing
+     * @return the property value or the default value if the property is not set
+     */
+    private static int getOptionalNonNegativeIntProperty(ConfigurationProperties property, int defaultValue) {
+        if (!isConfigExists()) {
+            return defaultValue;
+        }
+
+        String propertyValue = getPropertyString(property);
+        if (propertyValue == null || propertyValue.trim().isEmpty()) {
+            return defaultValue;
+        }
+
+        try {
+            int value = Integer.parseInt(propertyValue.trim());
+            if (value >= 0) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // handled below
+        }
+
+        String errorMessage = String.format("%s should be a nonnegative integer number.", property);
+        LOGGER.error(errorMessage);
+        throw new InvalidPropertyValueExceptipon(errorMessage);
+    }
+
+    /**
+     * Gets an optional nonnegative long integer property from the config file.
+     *
+     * @param property
+     *        - the configuration property to be returned
+     * @param defaultValue
+     *        - the value used when the config file or the property is missing
+     * @return the property value or the default value if the property is not set
+     */
+    private static long getOptionalNonNegativeLongProperty(ConfigurationProperties property, long defaultValue) {
+        if (!isConfigExists()) {
+            return defaultValue;
+        }
+
+        String propertyValue = getPropertyString(property);
+        if (propertyValue == null || propertyValue.trim().isEmpty()) {
+            return defaultValue;
+        }
+
+        try {
+            long value = Long.parseLong(propertyValue.trim());
+            if (value >= 0) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // handled below
+        }
+
+        String errorMessage = String.format("%s should be a nonnegative integer number.", property);
+        LOGGER.error(errorMessage);
+        throw new InvalidPropertyValueExceptipon(errorMessage);
+    }
+
     private static void validatePropertyValue(String propertyValue, ConfigurationProperties propertyType) {
         if (propertyValue.isEmpty()) {
             String errorMessage = String.format("%s value cannot be empty.", propertyType);
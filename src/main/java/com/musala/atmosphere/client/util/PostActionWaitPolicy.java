@@ -0,0 +1,74 @@
+// This file is part of the ATMOSPHERE mobile testing framework.
+// Copyright (C) 2016 MusalaSoft
+//
+// ATMOSPHERE is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// ATMOSPHERE is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with ATMOSPHERE.  If not, see <http://www.gnu.org/licenses/>.
+
+package com.musala.atmosphere.client.util;
+
+/**
+ * Policies for waiting after an operation on a UI element (tap, double tap, long press, etc.) before the next
+ * operation is executed.
+ *
+ * @author dimcho.nedev
+ *
+ */
+public enum PostActionWaitPolicy {
+    /**
+     * Do not wait after the operation.
+     */
+    NONE("none"),
+    /**
+     * Wait for the whole post action timeout.
+     */
+    FIXED_DELAY("fixed"),
+    /**
+     * Wait until no window content updates occur on the device for a short period, but no longer than the post action
+     * timeout. Finishes almost immediately when the operation does not change the screen.
+     * <p>
+     * Only the updates that occur while the client waits are observed, so an update that occurs between the response
+     * of the operation and the start of the wait is missed and the wait can return in the middle of a transition. Each
+     * observed update costs an additional round trip to the device.
+     * </p>
+     */
+    WAIT_FOR_IDLE("idle");
+
+    private String value;
+
+    private PostActionWaitPolicy(String value) {
+        this.value = value;
+    }
+
+    /**
+     * Gets the policy with the given configuration value.
+     *
+     * @param value
+     *        - the value of the policy in the configuration file
+     * @return the {@link PostActionWaitPolicy policy} with the given value or <code>null</code> if there is no such
+     *         policy
+     */
+    public static PostActionWaitPolicy fromValue(String value) {
+        for (PostActionWaitPolicy policy : values()) {
+            if (policy.value.equalsIgnoreCase(value)) {
+                return policy;
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}
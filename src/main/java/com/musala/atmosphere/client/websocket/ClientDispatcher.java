@@ -20,13 +20,26 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.websocket.ContainerProvider;
 import javax.websocket.DeploymentException;
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
 import javax.websocket.Session;
 import javax.websocket.WebSocketContainer;
 
@@ -43,7 +56,6 @@ import com.musala.atmosphere.commons.cs.util.ClientServerGsonUtil;
 import com.musala.atmosphere.commons.exceptions.NoAvailableDeviceFoundException;
 import com.musala.atmosphere.commons.util.ConnectionProperties;
 import com.musala.atmosphere.commons.util.Pair;
-import com.musala.atmosphere.commons.websocket.WebSocketCommunicatorManager;
 import com.musala.atmosphere.commons.websocket.message.MessageAction;
 import com.musala.atmosphere.commons.websocket.message.RequestMessage;
 import com.musala.atmosphere.commons.websocket.message.ResponseMessage;
@@ -66,9 +78,19 @@ public class ClientDispatcher {
 
     private int waitForDeviceTime = 300_000; // 5 minutes
 
-    private Session session;
+    private volatile Session session;
 
-    private WebSocketCommunicatorManager communicationManager = WebSocketCommunicatorManager.getInstance();
+    private final AtomicLong requestIdSequence = new AtomicLong();
+
+    private final ConcurrentMap<String, CompletableFuture<ResponseMessage>> pendingRequests = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService timeoutScheduler = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("atmosphere-request-timeout"));
+
+    // the response callbacks must never run on the WebSocket receiving thread, otherwise a blocking callback would
+    // prevent all further responses from being received
+    private final ExecutorService callbackExecutor = Executors.newCachedThreadPool(new DaemonThreadFactory("atmosphere-response-callback"));
+
+    private final AtomicBoolean isReconnecting = new AtomicBoolean();
 
     private final IJsonUtil jsonUtil = new ClientServerGsonUtil();
 
@@ -106,6 +128,15 @@ public class ClientDispatcher {
         connectToServer(serverAddress, webSocketPort, connectionRetryLimit);
     }
 
+    /**
+     * Gets the maximum time to wait for the response of a routing action, loaded from the config file if it exists.
+     *
+     * @return the response wait timeout in milliseconds
+     */
+    public int getResponseWaitTimeout() {
+        return waitForResponseTime;
+    }
+
     private void connectToServer(String serverAddress, int webSocketPort, int connectionRetryLimit) {
         WebSocketContainer container = ContainerProvider.getWebSocketContainer();
         container.setDefaultMaxTextMessageBufferSize(Integer.MAX_VALUE);
@@ -191,6 +222,37 @@ public class ClientDispatcher {
         }
     }
 
+    /**
+     * Sends a JSON message with {@link RoutingAction routing message action} to the Server's endpoint without blocking
+     * the calling thread. The returned future is completed when the response arrives from the Agent.
+     *
+     * @param deviceId
+     *        - identifier of a device
+     * @param invocationPasskey
+     *        - a passkey for validating the authority for the client device
+     * @param action
+     *        - {@link MessageAction message action}
+     * @param args
+     *        - the arguments of the request
+     * @return a {@link CompletableFuture future} that is completed with the result of the action or exceptionally with
+     *         the exception that occurred on the Agent, a {@link TimeoutException} if no response arrived in time or a
+     *         {@link ServerConnectionFailedException} if sending the request failed
+     */
+    public CompletableFuture<Object> routeWithFuture(String deviceId,
+                                                     long invocationPasskey,
+                                                     RoutingAction action,
+                                                     Object... args) {
+        RequestMessage requestMessage = buildRequest(deviceId, invocationPasskey, action, args);
+
+        return sendRequestAsync(requestMessage, session, waitForResponseTime).thenApplyAsync(response -> {
+            if (response.getException() != null) {
+                throw new CompletionException(response.getException());
+            }
+
+            return response.getData();
+        }, callbackExecutor);
+    }
+
     private RequestMessage buildRequest(String deviceId, long invocationPasskey, RoutingAction action, Object[] args) {
         RequestMessage requestMessage = new RequestMessage(MessageAction.ROUTING_ACTION, action, args);
         requestMessage.setDeviceId(deviceId);
@@ -216,6 +278,61 @@ public class ClientDispatcher {
                                                            int allocateDeviceRetryCount) {
         RequestMessage request = new RequestMessage(MessageAction.DEVICE_ALLOCATION_INFORMATION, deviceSelector);
         ResponseMessage response = sendRequest(request, session, waitForDeviceTime);
+
+        return toDeviceAllocationInformation(response);
+    }
+
+    /**
+     * Requests a {@link DeviceAllocationInformation} instance with the given {@link DeviceSelector device
+     * characteristics} without blocking the calling thread. Many such requests can be in flight at the same time.
+     *
+     * @param deviceSelector
+     *        - required {@link DeviceSelector parameters} needed to construct new {@link DeviceAllocationInformation}
+     *        instance.
+     * @param maxWaitTime
+     *        - maximum time in milliseconds to wait for an available device
+     * @return a {@link CompletableFuture future} that is completed with a {@link DeviceAllocationInformation} instance
+     *         or exceptionally with a {@link NoAvailableDeviceFoundException} if no device is allocated in time. A
+     *         device that is allocated by the Server after the wait time has elapsed is released when it arrives.
+     */
+    public CompletableFuture<DeviceAllocationInformation> getDeviceDescriptorAsync(DeviceSelector deviceSelector,
+                                                                                   int maxWaitTime) {
+        RequestMessage request = new RequestMessage(MessageAction.DEVICE_ALLOCATION_INFORMATION, deviceSelector);
+
+        return sendRequestAsync(request, session, maxWaitTime).handleAsync((response, throwable) -> {
+            if (throwable instanceof TimeoutException) {
+                // same as the blocking allocation, which gets no response when the wait time elapses
+                LOGGER.error(throwable.getMessage());
+                return toDeviceAllocationInformation(null);
+            }
+
+            if (throwable != null) {
+                throw new CompletionException(throwable);
+            }
+
+            return toDeviceAllocationInformation(response);
+        }, callbackExecutor);
+    }
+
+    /**
+     * Requests a {@link DeviceAllocationInformation} instance with the given {@link DeviceSelector device
+     * characteristics} without blocking the calling thread, waiting for an available device for the configured time.
+     *
+     * @param deviceSelector
+     *        - required {@link DeviceSelector parameters} needed to construct new {@link DeviceAllocationInformation}
+     *        instance.
+     * @return a {@link CompletableFuture future} that is completed with a {@link DeviceAllocationInformation} instance
+     *         or exceptionally if no device is allocated in time
+     */
+    public CompletableFuture<DeviceAllocationInformation> getDeviceDescriptorAsync(DeviceSelector deviceSelector) {
+        return getDeviceDescriptorAsync(deviceSelector, waitForDeviceTime);
+    }
+
+    private DeviceAllocationInformation toDeviceAllocationInformation(ResponseMessage response) {
+        if (response == null) {
+            throw new NoAvailableDeviceFoundException();
+        }
+
         if (response.getMessageAction() != MessageAction.ERROR) {
             return (DeviceAllocationInformation) response.getData();
         }
@@ -272,38 +389,205 @@ public class ClientDispatcher {
      * Sends a request and waits for a certain time for a response. If the connection is lost it tries to reconnect.
      */
     private ResponseMessage sendRequest(RequestMessage request, Session session, int wait) {
-        // The session identifier must be unique not only for WebSocket Session but also for action in case with
-        // multiple threads scenario. Otherwise the WebSocketCommunicationManager can return a response from another
-        // action.
-        final String sessionId = session.getId() + "_" + request.getMessageAction() + "_" + request.getRoutingAction();
+        // Every request gets its own correlation identifier, so concurrent requests with the same action (e.g. two
+        // threads taking screenshots on different devices) can never receive each other's responses.
+        final String sessionId = nextRequestId(session);
         request.setSessionId(sessionId);
 
-        Object lockObject = communicationManager.getSynchronizationObject(sessionId);
+        // The response slot is registered before the request is sent, so even a response that arrives before this
+        // thread starts waiting completes it.
+        CompletableFuture<ResponseMessage> responseFuture = registerPendingRequest(sessionId);
 
         String requestJSON = jsonUtil.serialize(request);
 
         try {
             session.getBasicRemote().sendText(requestJSON);
         } catch (IOException e1) {
-            connectToServer(serverConnectionProperties.getIp(),
-                            serverConnectionProperties.getPort(),
-                            HANDLE_LOST_CONNECTION_RETRIES);
+            reconnectToServer();
         }
 
         LOGGER.debug("Sending request:" + requestJSON);
         LOGGER.debug("Waiting for response...");
 
-        synchronized (lockObject) {
+        try {
+            ResponseMessage response = responseFuture.get(wait, TimeUnit.MILLISECONDS);
+            LOGGER.debug("Getting the response...");
+
+            return response;
+        } catch (InterruptedException e) {
+            LOGGER.error("Waiting for response interrupted.", e);
+
+            return abandonPendingRequest(responseFuture, e);
+        } catch (TimeoutException e) {
+            LOGGER.error(String.format("No response received for request %s in %d ms.", sessionId, wait), e);
+
+            return abandonPendingRequest(responseFuture, e);
+        } catch (ExecutionException e) {
+            LOGGER.error(String.format("No response received for request %s.", sessionId), e);
+        } finally {
+            pendingRequests.remove(sessionId);
+        }
+
+        return null;
+    }
+
+    /**
+     * Completes the slot of a request nobody waits for anymore, so a response that arrives from now on is handled as
+     * unclaimed (e.g. a late device allocation is released). Returns the response if it arrived in the meantime.
+     */
+    private ResponseMessage abandonPendingRequest(CompletableFuture<ResponseMessage> responseFuture, Throwable cause) {
+        if (responseFuture.completeExceptionally(cause)) {
+            return null;
+        }
+
+        return responseFuture.getNow(null);
+    }
+
+    /**
+     * Sends a request without waiting for the response. The response slot is registered before the request is sent and
+     * is released when the response arrives or the given time elapses. If the request cannot be sent, the returned
+     * future fails with a {@link ServerConnectionFailedException} and the dispatcher reconnects in the background.
+     */
+    private CompletableFuture<ResponseMessage> sendRequestAsync(RequestMessage request, Session session, int wait) {
+        if (session == null) {
+            CompletableFuture<ResponseMessage> notConnected = new CompletableFuture<>();
+            notConnected.completeExceptionally(new ServerConnectionFailedException("Not connected to the Server."));
+
+            return notConnected;
+        }
+
+        final String sessionId = nextRequestId(session);
+        request.setSessionId(sessionId);
+
+        final CompletableFuture<ResponseMessage> responseFuture = registerPendingRequest(sessionId);
+        final ScheduledFuture<?> timeout = timeoutScheduler.schedule(() -> {
+            String message = String.format("No response received for request %s in %d ms.", sessionId, wait);
+            responseFuture.completeExceptionally(new TimeoutException(message));
+        }, wait, TimeUnit.MILLISECONDS);
+
+        responseFuture.whenComplete((response, throwable) -> {
+            pendingRequests.remove(sessionId);
+            timeout.cancel(false);
+        });
+
+        String requestJSON = jsonUtil.serialize(request);
+        LOGGER.debug("Sending request:" + requestJSON);
+
+        try {
+            session.getAsyncRemote().sendText(requestJSON, new SendHandler() {
+                @Override
+                public void onResult(SendResult result) {
+                    if (!result.isOK()) {
+                        onSendingFailed(responseFuture, result.getException());
+                    }
+                }
+            });
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            // the session is already closed
+            onSendingFailed(responseFuture, e);
+        }
+
+        return responseFuture;
+    }
+
+    private void onSendingFailed(CompletableFuture<ResponseMessage> responseFuture, Throwable cause) {
+        LOGGER.error("Sending request failed.", cause);
+        responseFuture.completeExceptionally(new ServerConnectionFailedException("Could not send the request.", cause));
+
+        // the request is not sent again, but the following requests are sent through the new connection
+        if (serverConnectionProperties != null && isReconnecting.compareAndSet(false, true)) {
+            callbackExecutor.execute(() -> {
+                try {
+                    reconnectToServer();
+                } catch (ServerConnectionFailedException e) {
+                    // already logged, the next failed request tries again
+                } finally {
+                    isReconnecting.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Connects to the Server again after the connection is lost.
+     */
+    private void reconnectToServer() {
+        connectToServer(serverConnectionProperties.getIp(),
+                        serverConnectionProperties.getPort(),
+                        HANDLE_LOST_CONNECTION_RETRIES);
+    }
+
+    /**
+     * Hands a received response to the request that is waiting for it.
+     *
+     * @param response
+     *        - the {@link ResponseMessage response} received from the Server
+     */
+    void onResponse(ResponseMessage response) {
+        CompletableFuture<ResponseMessage> responseFuture = pendingRequests.get(response.getSessionId());
+
+        // the request may expire between the lookup and the completion
+        if (responseFuture == null || !responseFuture.complete(response)) {
+            LOGGER.warn("Received a response for an unknown or expired request: " + response.getSessionId());
+            releaseUnclaimedDevice(response);
+        }
+    }
+
+    /**
+     * Releases a device that the Server allocated for a request nobody waits for anymore, otherwise the device would
+     * remain allocated to this client.
+     */
+    private void releaseUnclaimedDevice(ResponseMessage response) {
+        boolean isAllocation = response.getMessageAction() != MessageAction.ERROR
+                && response.getData() instanceof DeviceAllocationInformation;
+        if (!isAllocation) {
+            return;
+        }
+
+        final DeviceAllocationInformation deviceDescriptor = (DeviceAllocationInformation) response.getData();
+        LOGGER.warn(String.format("Releasing device with ID: %s allocated after the wait time elapsed.",
+                                  deviceDescriptor.getDeviceId()));
+
+        // the release waits for a response, so it must not block the WebSocket receiving thread
+        callbackExecutor.execute(() -> {
             try {
-                lockObject.wait(wait);
-            } catch (InterruptedException e) {
-                LOGGER.error("Waiting for response interrupted.", e);
+                releaseDevice(deviceDescriptor);
+            } catch (Exception e) {
+                LOGGER.error("Could not release a device allocated after the wait time elapsed.", e);
             }
+        });
+    }
+
+    private CompletableFuture<ResponseMessage> registerPendingRequest(String sessionId) {
+        CompletableFuture<ResponseMessage> responseFuture = new CompletableFuture<>();
+        pendingRequests.put(sessionId, responseFuture);
+
+        return responseFuture;
+    }
+
+    private String nextRequestId(Session session) {
+        return session.getId() + "_" + requestIdSequence.incrementAndGet();
+    }
+
+    /**
+     * Creates named daemon threads, so the dispatcher executors never keep the test JVM alive.
+     */
+    private static class DaemonThreadFactory implements ThreadFactory {
+        private final String threadName;
+
+        private final AtomicLong threadCount = new AtomicLong();
+
+        DaemonThreadFactory(String threadName) {
+            this.threadName = threadName;
         }
 
-        LOGGER.debug("Getting the response...");
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, threadName + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
 
-        return communicationManager.popResponse(sessionId);
+            return thread;
+        }
     }
 
 }
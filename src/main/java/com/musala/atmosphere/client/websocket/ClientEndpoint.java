@@ -22,7 +22,6 @@ import javax.websocket.Session;
 import org.apache.log4j.Logger;
 
 import com.musala.atmosphere.commons.cs.util.ClientServerGsonUtil;
-import com.musala.atmosphere.commons.websocket.WebSocketCommunicatorManager;
 import com.musala.atmosphere.commons.websocket.message.MessageAction;
 import com.musala.atmosphere.commons.websocket.message.ResponseMessage;
 import com.musala.atmosphere.commons.websocket.util.IJsonUtil;
@@ -38,7 +37,7 @@ import com.musala.atmosphere.commons.websocket.util.JsonConst;
 public class ClientEndpoint {
     private static final Logger LOGGER = Logger.getLogger(ClientEndpoint.class.getCanonicalName());
 
-    private static WebSocketCommunicatorManager communicationManager = WebSocketCommunicatorManager.getInstance();
+    private static ClientDispatcher dispatcher = ClientDispatcher.getInstance();
 
     private static final IJsonUtil jsonUtil = new ClientServerGsonUtil();
 
@@ -53,7 +52,7 @@ public class ClientEndpoint {
             case ERROR:
             case RELEASE_DEVICE:
                 ResponseMessage response = jsonUtil.deserializeResponse(message);
-                communicationManager.addResponse(response);
+                dispatcher.onResponse(response);
                 break;
             default:
                 LOGGER.error("Unknown message action on the ClientEndpoint: " + messageAction);
@@ -0,0 +1,128 @@
+// This file is part of the ATMOSPHERE mobile testing framework.
+// Copyright (C) 2016 MusalaSoft
+//
+// ATMOSPHERE is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// ATMOSPHERE is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with ATMOSPHERE.  If not, see <http://www.gnu.org/licenses/>.
+
+package com.musala.atmosphere.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyVararg;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import com.musala.atmosphere.client.device.HardwareButton;
+import com.musala.atmosphere.client.exceptions.DeviceInvocationRejectedException;
+import com.musala.atmosphere.commons.RoutingAction;
+import com.musala.atmosphere.commons.exceptions.CommandFailedException;
+import com.musala.atmosphere.commons.geometry.Point;
+
+/**
+ * Tests {@link ActionBatch}
+ *
+ * @author dimcho.nedev
+ */
+public class ActionBatchTest {
+    private static final String TEST_TEXT = "text";
+
+    private DeviceCommunicator communicatorMock;
+
+    private CompletableFuture<Object> tapResult;
+
+    private CompletableFuture<Object> inputTextResult;
+
+    private CompletableFuture<Object> pressButtonResult;
+
+    @Before
+    public void setUp() {
+        communicatorMock = mock(DeviceCommunicator.class);
+
+        tapResult = new CompletableFuture<>();
+        inputTextResult = new CompletableFuture<>();
+        pressButtonResult = new CompletableFuture<>();
+        when(communicatorMock.sendActionAsync(eq(RoutingAction.GESTURE_TAP), anyVararg())).thenReturn(tapResult);
+        when(communicatorMock.sendActionAsync(eq(RoutingAction.IME_INPUT_TEXT), anyVararg())).thenReturn(inputTextResult);
+        when(communicatorMock.sendActionAsync(eq(RoutingAction.PRESS_HARDWARE_BUTTON),
+                                              anyVararg())).thenReturn(pressButtonResult);
+    }
+
+    @Test
+    public void testActionsAreSentAfterThePreviousOneCompletes() {
+        CompletableFuture<List<Object>> results = createBatch().executeAsync();
+
+        verify(communicatorMock).sendActionAsync(eq(RoutingAction.GESTURE_TAP), anyVararg());
+        verify(communicatorMock, never()).sendActionAsync(eq(RoutingAction.IME_INPUT_TEXT), anyVararg());
+
+        tapResult.complete(true);
+        verify(communicatorMock).sendActionAsync(eq(RoutingAction.IME_INPUT_TEXT), anyVararg());
+        verify(communicatorMock, never()).sendActionAsync(eq(RoutingAction.PRESS_HARDWARE_BUTTON), anyVararg());
+
+        inputTextResult.complete(true);
+        assertFalse(results.isDone());
+
+        pressButtonResult.complete(false);
+        assertEquals(Arrays.<Object> asList(true, true, false), results.join());
+
+        InOrder inOrder = inOrder(communicatorMock);
+        inOrder.verify(communicatorMock).sendActionAsync(eq(RoutingAction.GESTURE_TAP), anyVararg());
+        inOrder.verify(communicatorMock).sendActionAsync(eq(RoutingAction.IME_INPUT_TEXT), anyVararg());
+        inOrder.verify(communicatorMock).sendActionAsync(eq(RoutingAction.PRESS_HARDWARE_BUTTON), anyVararg());
+    }
+
+    @Test
+    public void testFailedActionOnDeviceHasNullResult() {
+        tapResult.completeExceptionally(new CommandFailedException());
+        inputTextResult.complete(true);
+        pressButtonResult.complete(true);
+
+        List<Object> results = createBatch().execute();
+
+        assertEquals(Arrays.<Object> asList(null, true, true), results);
+    }
+
+    @Test
+    public void testRejectedActionStopsTheBatch() {
+        DeviceInvocationRejectedException rejection = new DeviceInvocationRejectedException("rejected");
+        tapResult.complete(true);
+        inputTextResult.completeExceptionally(rejection);
+
+        try {
+            createBatch().execute();
+            fail("The batch execution should fail.");
+        } catch (DeviceInvocationRejectedException e) {
+            assertEquals(rejection, e);
+        }
+
+        verify(communicatorMock, never()).sendActionAsync(eq(RoutingAction.PRESS_HARDWARE_BUTTON), anyVararg());
+    }
+
+    private ActionBatch createBatch() {
+        return new ActionBatch(communicatorMock).tap(new Point(1, 1))
+                                                .inputText(TEST_TEXT)
+                                                .pressButton(HardwareButton.BACK);
+    }
+}
@@ -0,0 +1,112 @@
+// This file is part of the ATMOSPHERE mobile testing framework.
+// Copyright (C) 2016 MusalaSoft
+//
+// ATMOSPHERE is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// ATMOSPHERE is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with ATMOSPHERE.  If not, see <http://www.gnu.org/licenses/>.
+
+package com.musala.atmosphere.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.musala.atmosphere.client.websocket.ClientDispatcher;
+import com.musala.atmosphere.commons.cs.clientbuilder.DeviceAllocationInformation;
+import com.musala.atmosphere.commons.cs.deviceselection.DeviceSelector;
+import com.musala.atmosphere.commons.cs.deviceselection.DeviceSelectorBuilder;
+import com.musala.atmosphere.commons.exceptions.NoAvailableDeviceFoundException;
+
+/**
+ * Tests the asynchronous device allocation of the {@link Builder}.
+ *
+ * @author dimcho.nedev
+ */
+public class BuilderTest {
+    private static final int TEST_MAX_WAIT_TIME = 100;
+
+    private static final String TEST_DEVICE_ID = "test_device_id";
+
+    private ClientDispatcher dispatcherMock;
+
+    private DeviceSelector deviceSelector;
+
+    private Builder builder;
+
+    @Before
+    public void setUp() {
+        dispatcherMock = mock(ClientDispatcher.class);
+        deviceSelector = new DeviceSelectorBuilder().serialNumber(TEST_DEVICE_ID).build();
+        builder = new Builder(dispatcherMock, null);
+    }
+
+    @Test
+    public void testAsyncAllocationCreatesDevice() {
+        DeviceAllocationInformation deviceDescriptorMock = mock(DeviceAllocationInformation.class);
+        when(deviceDescriptorMock.getDeviceId()).thenReturn(TEST_DEVICE_ID);
+        CompletableFuture<DeviceAllocationInformation> allocation = new CompletableFuture<>();
+        allocation.complete(deviceDescriptorMock);
+        when(dispatcherMock.getDeviceDescriptorAsync(deviceSelector, TEST_MAX_WAIT_TIME)).thenReturn(allocation);
+
+        Device device = builder.getDeviceAsync(deviceSelector, TEST_MAX_WAIT_TIME).join();
+
+        assertNotNull("Expected a device to be created for the allocation.", device);
+    }
+
+    @Test
+    public void testAsyncAllocationFailsWithNoAvailableDevice() {
+        CompletableFuture<DeviceAllocationInformation> allocation = new CompletableFuture<>();
+        allocation.completeExceptionally(new NoAvailableDeviceFoundException());
+        when(dispatcherMock.getDeviceDescriptorAsync(deviceSelector, TEST_MAX_WAIT_TIME)).thenReturn(allocation);
+
+        try {
+            builder.getDeviceAsync(deviceSelector, TEST_MAX_WAIT_TIME).join();
+            fail("Expected the allocation to fail.");
+        } catch (CompletionException e) {
+            assertTrue("Unexpected allocation failure: " + e.getCause(),
+                       e.getCause() instanceof NoAvailableDeviceFoundException);
+        }
+    }
+
+    @Test
+    public void testDevicesAreRequestedConcurrently() {
+        DeviceSelector otherDeviceSelector = new DeviceSelectorBuilder().serialNumber("other_device_id").build();
+        CompletableFuture<DeviceAllocationInformation> allocation = new CompletableFuture<>();
+        CompletableFuture<DeviceAllocationInformation> otherAllocation = new CompletableFuture<>();
+        when(dispatcherMock.getDeviceDescriptorAsync(deviceSelector)).thenReturn(allocation);
+        when(dispatcherMock.getDeviceDescriptorAsync(otherDeviceSelector)).thenReturn(otherAllocation);
+
+        List<CompletableFuture<Device>> devices = builder.getDevicesAsync(Arrays.asList(deviceSelector,
+                                                                                        otherDeviceSelector));
+
+        // both allocations are requested before any of them completes
+        assertEquals(2, devices.size());
+        assertFalse(devices.get(0).isDone());
+        assertFalse(devices.get(1).isDone());
+        verify(dispatcherMock, times(1)).getDeviceDescriptorAsync(deviceSelector);
+        verify(dispatcherMock, times(1)).getDeviceDescriptorAsync(otherDeviceSelector);
+    }
+}
@@ -0,0 +1,91 @@
+// This file is part of the ATMOSPHERE mobile testing framework.
+// Copyright (C) 2016 MusalaSoft
+//
+// ATMOSPHERE is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// ATMOSPHERE is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with ATMOSPHERE.  If not, see <http://www.gnu.org/licenses/>.
+
+package com.musala.atmosphere.client;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests {@link ChunkedFileWriter}
+ *
+ * @author dimcho.nedev
+ */
+public class ChunkedFileWriterTest {
+    private Path testFile;
+
+    @Before
+    public void setUp() throws IOException {
+        testFile = Files.createTempFile("chunked", ".tmp");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(testFile);
+    }
+
+    private byte[] createData(int length) {
+        byte[] data = new byte[length];
+        new Random(length).nextBytes(data);
+
+        return data;
+    }
+
+    @Test
+    public void testWriteBase64SpanningSeveralChunks() throws IOException {
+        // a length that does not fill the last chunk and needs padding
+        byte[] data = createData(ChunkedFileWriter.BASE64_CHUNK_LENGTH / 4 * 3 * 2 + 1);
+
+        ChunkedFileWriter.writeBase64(testFile, Base64.getEncoder().encodeToString(data));
+
+        assertArrayEquals("The decoded file content differs from the encoded data.", data, Files.readAllBytes(testFile));
+    }
+
+    @Test
+    public void testWriteBase64WithinSingleChunk() throws IOException {
+        byte[] data = createData(100);
+
+        ChunkedFileWriter.writeBase64(testFile, Base64.getEncoder().encodeToString(data));
+
+        assertArrayEquals("The file content differs from the encoded data.", data, Files.readAllBytes(testFile));
+    }
+
+    @Test
+    public void testWriteTextSpanningSeveralChunks() throws IOException {
+        // multi-byte characters make the chunk boundaries fall inside encoded characters
+        StringBuilder text = new StringBuilder();
+        while (text.length() < ChunkedFileWriter.TEXT_CHUNK_SIZE * 2) {
+            text.append("<node text=\"\u0436\u00e9\ud83d\ude00\"/>");
+        }
+
+        ChunkedFileWriter.writeText(testFile, text.toString());
+
+        assertEquals("The file content differs from the given text.",
+                     text.toString(),
+                     new String(Files.readAllBytes(testFile), StandardCharsets.UTF_8));
+    }
+}
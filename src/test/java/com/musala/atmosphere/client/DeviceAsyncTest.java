@@ -0,0 +1,141 @@
+// This file is part of the ATMOSPHERE mobile testing framework.
+// Copyright (C) 2016 MusalaSoft
+//
+// ATMOSPHERE is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// ATMOSPHERE is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with ATMOSPHERE.  If not, see <http://www.gnu.org/licenses/>.
+
+package com.musala.atmosphere.client;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Field;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.musala.atmosphere.client.exceptions.DeviceReleasedException;
+import com.musala.atmosphere.client.exceptions.ServerConnectionFailedException;
+import com.musala.atmosphere.client.websocket.ClientDispatcher;
+import com.musala.atmosphere.commons.RoutingAction;
+import com.musala.atmosphere.commons.exceptions.CommandFailedException;
+
+/**
+ * Tests the asynchronous actions of the {@link Device}.
+ *
+ * @author dimcho.nedev
+ */
+public class DeviceAsyncTest {
+    private static final int TEST_PASSKEY = 0;
+
+    private static final String TEST_DEVICE_ID = "test_device_id";
+
+    private static final String TEST_SHELL_COMMAND = "ls";
+
+    private ClientDispatcher dispatcherMock;
+
+    private DeviceCommunicator deviceCommunicator;
+
+    private Device device;
+
+    @Before
+    public void setUp() throws Exception {
+        dispatcherMock = mock(ClientDispatcher.class);
+        deviceCommunicator = new DeviceCommunicator(TEST_PASSKEY, TEST_DEVICE_ID);
+
+        Field dispatcher = DeviceCommunicator.class.getDeclaredField("dispatcher");
+        dispatcher.setAccessible(true);
+        dispatcher.set(deviceCommunicator, dispatcherMock);
+
+        device = new Device(deviceCommunicator);
+    }
+
+    @Test
+    public void testScreenshotIsDecoded() {
+        byte[] screenshot = new byte[] {1, 2, 3, 4, 5};
+        CompletableFuture<Object> response = CompletableFuture.completedFuture(Base64.getEncoder()
+                                                                                      .encodeToString(screenshot));
+        when(dispatcherMock.routeWithFuture(any(), anyLong(), eq(RoutingAction.GET_SCREENSHOT))).thenReturn(response);
+
+        assertArrayEquals(screenshot, device.getScreenshotAsync().join());
+    }
+
+    @Test
+    public void testShellCommandOutput() {
+        stubShellCommand(CompletableFuture.completedFuture("output"));
+
+        assertEquals("output", device.executeShellCommandAsync(TEST_SHELL_COMMAND).join());
+    }
+
+    @Test
+    public void testFailureOnDeviceCompletesExceptionally() {
+        stubShellCommand(failedResponse(new CommandFailedException()));
+
+        assertAsyncFailure(device.executeShellCommandAsync(TEST_SHELL_COMMAND), CommandFailedException.class);
+    }
+
+    @Test
+    public void testActionOnReleasedDeviceCompletesExceptionally() {
+        deviceCommunicator.release();
+
+        assertAsyncFailure(device.executeShellCommandAsync(TEST_SHELL_COMMAND), DeviceReleasedException.class);
+    }
+
+    @Test
+    public void testConnectionFailureCompletesExceptionally() {
+        stubShellCommand(failedResponse(new ServerConnectionFailedException()));
+
+        assertAsyncFailure(device.executeShellCommandAsync(TEST_SHELL_COMMAND), ServerConnectionFailedException.class);
+    }
+
+    @Test
+    public void testTimeoutCompletesExceptionally() {
+        stubShellCommand(failedResponse(new TimeoutException()));
+
+        assertAsyncFailure(device.executeShellCommandAsync(TEST_SHELL_COMMAND), TimeoutException.class);
+    }
+
+    private void stubShellCommand(CompletableFuture<Object> response) {
+        when(dispatcherMock.routeWithFuture(any(),
+                                            anyLong(),
+                                            eq(RoutingAction.EXECUTE_SHELL_COMMAND),
+                                            eq(TEST_SHELL_COMMAND))).thenReturn(response);
+    }
+
+    private CompletableFuture<Object> failedResponse(Exception exception) {
+        CompletableFuture<Object> response = new CompletableFuture<>();
+        response.completeExceptionally(exception);
+
+        return response;
+    }
+
+    private void assertAsyncFailure(CompletableFuture<?> result, Class<?> expectedFailure) {
+        try {
+            result.join();
+            fail("Expected the action to fail with " + expectedFailure.getSimpleName());
+        } catch (CompletionException e) {
+            assertTrue("Unexpected action failure: " + e.getCause(), expectedFailure.isInstance(e.getCause()));
+        }
+    }
+}
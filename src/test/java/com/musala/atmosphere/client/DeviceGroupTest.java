@@ -0,0 +1,136 @@
+// This file is part of the ATMOSPHERE mobile testing framework.
+// Copyright (C) 2016 MusalaSoft
+//
+// ATMOSPHERE is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// ATMOSPHERE is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with ATMOSPHERE.  If not, see <http://www.gnu.org/licenses/>.
+
+package com.musala.atmosphere.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.musala.atmosphere.client.exceptions.ServerConnectionFailedException;
+import com.musala.atmosphere.commons.cs.deviceselection.DeviceSelector;
+import com.musala.atmosphere.commons.cs.deviceselection.DeviceSelectorBuilder;
+import com.musala.atmosphere.commons.exceptions.NoAvailableDeviceFoundException;
+
+/**
+ * Tests {@link DeviceGroup}
+ *
+ * @author dimcho.nedev
+ */
+public class DeviceGroupTest {
+    private static final String TEST_PACKAGE_NAME = "com.example.test";
+
+    private Builder builderMock;
+
+    private List<DeviceSelector> deviceSelectors;
+
+    private Device firstDeviceMock;
+
+    private Device secondDeviceMock;
+
+    @Before
+    public void setUp() {
+        builderMock = mock(Builder.class);
+        deviceSelectors = Arrays.asList(new DeviceSelectorBuilder().serialNumber("first_device_id").build(),
+                                        new DeviceSelectorBuilder().serialNumber("second_device_id").build());
+        firstDeviceMock = mock(Device.class);
+        secondDeviceMock = mock(Device.class);
+    }
+
+    @Test
+    public void testBroadcastRunsOnDaemonThreads() {
+        allocate(CompletableFuture.completedFuture(firstDeviceMock),
+                 CompletableFuture.completedFuture(secondDeviceMock));
+        DeviceGroup group = new DeviceGroup(builderMock, deviceSelectors);
+
+        Map<Device, CompletableFuture<Boolean>> results = group.broadcast(device -> Thread.currentThread().isDaemon());
+
+        assertEquals(2, results.size());
+        for (CompletableFuture<Boolean> result : results.values()) {
+            assertTrue("The broadcast operations should not keep the JVM alive.", result.join());
+        }
+        group.release();
+    }
+
+    @Test
+    public void testClearApplicationDataReturnsResultOfEachDevice() {
+        allocate(CompletableFuture.completedFuture(firstDeviceMock),
+                 CompletableFuture.completedFuture(secondDeviceMock));
+        when(firstDeviceMock.clearApplicationData(TEST_PACKAGE_NAME)).thenReturn(true);
+        when(secondDeviceMock.clearApplicationData(TEST_PACKAGE_NAME)).thenReturn(false);
+        DeviceGroup group = new DeviceGroup(builderMock, deviceSelectors);
+
+        Map<Device, CompletableFuture<Boolean>> results = group.clearApplicationData(TEST_PACKAGE_NAME);
+
+        assertTrue("Clearing the data on the first device should succeed.", results.get(firstDeviceMock).join());
+        assertFalse("Clearing the data on the second device should fail.", results.get(secondDeviceMock).join());
+        group.release();
+    }
+
+    @Test
+    public void testFailedAllocationReleasesAllocatedDevices() throws Exception {
+        CompletableFuture<Device> failedAllocation = new CompletableFuture<>();
+        failedAllocation.completeExceptionally(new NoAvailableDeviceFoundException());
+        allocate(CompletableFuture.completedFuture(firstDeviceMock), failedAllocation);
+
+        try {
+            new DeviceGroup(builderMock, deviceSelectors);
+            fail("Expected the group allocation to fail.");
+        } catch (NoAvailableDeviceFoundException e) {
+            // the failure of the allocation is thrown
+        }
+
+        verify(builderMock).releaseDevice(firstDeviceMock);
+    }
+
+    @Test
+    public void testFailedReleaseDoesNotStopRelease() throws Exception {
+        allocate(CompletableFuture.completedFuture(firstDeviceMock),
+                 CompletableFuture.completedFuture(secondDeviceMock));
+        doThrow(new ServerConnectionFailedException()).when(builderMock).releaseDevice(firstDeviceMock);
+        DeviceGroup group = new DeviceGroup(builderMock, deviceSelectors);
+
+        group.release();
+
+        verify(builderMock).releaseDevice(secondDeviceMock);
+        try {
+            group.broadcast(device -> true);
+            fail("Expected the executor of a released group to be shut down.");
+        } catch (RejectedExecutionException e) {
+            // the group executor is shut down
+        }
+    }
+
+    @SafeVarargs
+    private final void allocate(CompletableFuture<Device>... allocations) {
+        when(builderMock.getDevicesAsync(anyListOf(DeviceSelector.class))).thenReturn(Arrays.asList(allocations));
+    }
+}
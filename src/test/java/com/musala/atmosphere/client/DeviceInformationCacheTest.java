@@ -0,0 +1,94 @@
+// This file is part of the ATMOSPHERE mobile testing framework.
+// Copyright (C) 2016 MusalaSoft
+//
+// ATMOSPHERE is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// ATMOSPHERE is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with ATMOSPHERE.  If not, see <http://www.gnu.org/licenses/>.
+
+package com.musala.atmosphere.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Field;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.musala.atmosphere.client.websocket.ClientDispatcher;
+import com.musala.atmosphere.commons.DeviceInformation;
+import com.musala.atmosphere.commons.RoutingAction;
+import com.musala.atmosphere.commons.util.Pair;
+
+/**
+ * Tests that the {@link DeviceInformation} of a {@link Device} is requested only once.
+ *
+ * @author dimcho.nedev
+ */
+public class DeviceInformationCacheTest {
+    private static final int TEST_PASSKEY = 0;
+
+    private static final String TEST_DEVICE_ID = "test_device_id";
+
+    private ClientDispatcher dispatcherMock;
+
+    private DeviceCommunicator deviceCommunicator;
+
+    private Device device;
+
+    @Before
+    public void setUp() throws Exception {
+        dispatcherMock = mock(ClientDispatcher.class);
+        deviceCommunicator = new DeviceCommunicator(TEST_PASSKEY, TEST_DEVICE_ID);
+
+        Field dispatcher = DeviceCommunicator.class.getDeclaredField("dispatcher");
+        dispatcher.setAccessible(true);
+        dispatcher.set(deviceCommunicator, dispatcherMock);
+
+        device = new Device(deviceCommunicator);
+    }
+
+    @Test
+    public void testInformationIsRequestedOnce() throws Exception {
+        Pair<Integer, Integer> resolution = new Pair<Integer, Integer>(480, 800);
+        DeviceInformation deviceInformation = new DeviceInformation();
+        deviceInformation.setResolution(resolution);
+        when(dispatcherMock.route(any(), anyLong(), eq(RoutingAction.GET_DEVICE_INFORMATION))).thenReturn(deviceInformation);
+
+        assertSame(deviceInformation, device.getInformation());
+        assertSame(deviceInformation, device.getInformation());
+        assertEquals(resolution, deviceCommunicator.getDeviceResolution());
+
+        verify(dispatcherMock, times(1)).route(any(), anyLong(), eq(RoutingAction.GET_DEVICE_INFORMATION));
+    }
+
+    @Test
+    public void testFailedRequestIsRetried() throws Exception {
+        DeviceInformation deviceInformation = new DeviceInformation();
+        when(dispatcherMock.route(any(), anyLong(), eq(RoutingAction.GET_DEVICE_INFORMATION))).thenReturn(null)
+                                                                                             .thenReturn(deviceInformation);
+
+        assertNull(device.getInformation());
+        assertSame(deviceInformation, device.getInformation());
+        assertSame(deviceInformation, device.getInformation());
+
+        verify(dispatcherMock, times(2)).route(any(), anyLong(), eq(RoutingAction.GET_DEVICE_INFORMATION));
+    }
+}
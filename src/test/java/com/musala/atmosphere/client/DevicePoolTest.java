@@ -0,0 +1,162 @@
+// This file is part of the ATMOSPHERE mobile testing framework.
+// Copyright (C) 2016 MusalaSoft
+//
+// ATMOSPHERE is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// ATMOSPHERE is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with ATMOSPHERE.  If not, see <http://www.gnu.org/licenses/>.
+
+package com.musala.atmosphere.client;
+
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.musala.atmosphere.client.device.HardwareButton;
+import com.musala.atmosphere.commons.cs.deviceselection.DeviceSelector;
+import com.musala.atmosphere.commons.cs.deviceselection.DeviceSelectorBuilder;
+import com.musala.atmosphere.commons.exceptions.NoAvailableDeviceFoundException;
+
+/**
+ * Tests {@link DevicePool}
+ *
+ * @author dimcho.nedev
+ */
+public class DevicePoolTest {
+    private static final String TEST_PACKAGE_NAME = "com.example.app";
+
+    private Builder builderMock;
+
+    private DeviceSelector deviceSelector;
+
+    private Device deviceMock;
+
+    private DevicePool pool;
+
+    @Before
+    public void setUp() {
+        builderMock = mock(Builder.class);
+        deviceSelector = new DeviceSelectorBuilder().serialNumber("test_device_id").build();
+        deviceMock = mockDevice();
+        when(builderMock.getDevice(deviceSelector)).thenReturn(deviceMock);
+
+        pool = new DevicePool(builderMock, 2, Arrays.asList(TEST_PACKAGE_NAME));
+    }
+
+    @Test
+    public void testResetDeviceIsBorrowedAgain() throws Exception {
+        pool.borrow(deviceSelector).close();
+
+        assertSame(deviceMock, pool.borrow(deviceSelector).getDevice());
+        verify(deviceMock).forceStopProcess(TEST_PACKAGE_NAME);
+        verify(deviceMock).clearApplicationData(TEST_PACKAGE_NAME);
+        verify(deviceMock).pressButton(HardwareButton.HOME);
+        verify(builderMock, times(1)).getDevice(deviceSelector);
+        verify(builderMock, never()).releaseDevice(any(Device.class));
+    }
+
+    @Test
+    public void testDeviceIsReleasedWhenClearingDataFails() throws Exception {
+        when(deviceMock.clearApplicationData(TEST_PACKAGE_NAME)).thenReturn(false);
+
+        pool.borrow(deviceSelector).close();
+
+        verify(builderMock).releaseDevice(deviceMock);
+        verify(deviceMock, never()).pressButton(HardwareButton.HOME);
+
+        pool.borrow(deviceSelector);
+        verify(builderMock, times(2)).getDevice(deviceSelector);
+    }
+
+    @Test
+    public void testDeviceIsReleasedWhenPressingHomeFails() throws Exception {
+        when(deviceMock.pressButton(HardwareButton.HOME)).thenReturn(false);
+
+        pool.borrow(deviceSelector).close();
+
+        verify(builderMock).releaseDevice(deviceMock);
+    }
+
+    @Test
+    public void testNewDeviceIsReleasedWhenUnlockingFails() throws Exception {
+        when(deviceMock.unlock()).thenReturn(false);
+
+        try {
+            pool.borrow(deviceSelector);
+            fail("Expected borrowing a device that can not be unlocked to fail.");
+        } catch (IllegalStateException e) {
+            // the failure of the unlock is thrown
+        }
+
+        verify(builderMock).releaseDevice(deviceMock);
+    }
+
+    @Test
+    public void testWarmUpFillsPool() throws Exception {
+        Device otherDeviceMock = mockDevice();
+        List<CompletableFuture<Device>> allocations = Arrays.asList(CompletableFuture.completedFuture(deviceMock),
+                                                                    CompletableFuture.completedFuture(otherDeviceMock));
+        when(builderMock.getDevicesAsync(anyListOf(DeviceSelector.class))).thenReturn(allocations);
+
+        pool.warmUp(deviceSelector);
+        pool.borrow(deviceSelector);
+        pool.borrow(deviceSelector);
+
+        verify(deviceMock).unlock();
+        verify(otherDeviceMock).unlock();
+        verify(builderMock, never()).getDevice(deviceSelector);
+    }
+
+    @Test
+    public void testFailedWarmUpReleasesAllocatedDevices() throws Exception {
+        CompletableFuture<Device> failedAllocation = new CompletableFuture<>();
+        failedAllocation.completeExceptionally(new NoAvailableDeviceFoundException());
+        List<CompletableFuture<Device>> allocations = Arrays.asList(failedAllocation,
+                                                                    CompletableFuture.completedFuture(deviceMock));
+        when(builderMock.getDevicesAsync(anyListOf(DeviceSelector.class))).thenReturn(allocations);
+
+        try {
+            pool.warmUp(deviceSelector);
+            fail("Expected the warm-up to fail.");
+        } catch (NoAvailableDeviceFoundException e) {
+            // the failure of the allocation is thrown
+        }
+
+        verify(builderMock).releaseDevice(deviceMock);
+
+        // no released device is left in the pool
+        pool.borrow(deviceSelector);
+        verify(builderMock, times(1)).getDevice(deviceSelector);
+    }
+
+    private Device mockDevice() {
+        Device device = mock(Device.class);
+        when(device.unlock()).thenReturn(true);
+        when(device.forceStopProcess(TEST_PACKAGE_NAME)).thenReturn(true);
+        when(device.clearApplicationData(TEST_PACKAGE_NAME)).thenReturn(true);
+        when(device.pressButton(HardwareButton.HOME)).thenReturn(true);
+
+        return device;
+    }
+}
@@ -16,9 +16,12 @@
 
 package com.musala.atmosphere.client;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.awt.image.BufferedImage;
@@ -26,6 +29,9 @@ import java.io.File;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import javax.imageio.ImageIO;
 
@@ -35,7 +41,9 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.Spy;
 
+import com.musala.atmosphere.client.uiutils.AccessibilityElementUtils;
 import com.musala.atmosphere.commons.DeviceInformation;
+import com.musala.atmosphere.commons.RoutingAction;
 import com.musala.atmosphere.commons.ScreenOrientation;
 import com.musala.atmosphere.commons.geometry.Bounds;
 import com.musala.atmosphere.commons.geometry.Point;
@@ -180,4 +188,36 @@ public class GetUiElementImageTest {
         assertTrue(RECEIVED_DIFFERENT_IMAGES_MESSAGE, expectedImage.equals(elementImage));
         assertTrue(RECEIVED_DIFFERENT_IMAGES_MESSAGE, elementImage.equals(expectedImage));
     }
+
+    @Test
+    public void testGetElementImagesFromSingleScreenshot() throws Exception {
+        Path screenshotPortraitImagePath = Paths.get(TestResources.SCREENSHOT_PORTRAIT_PATH);
+        byte[] screenshotPortraitData = Files.readAllBytes(screenshotPortraitImagePath);
+
+        DeviceCommunicator communicatorMock = mock(DeviceCommunicator.class);
+        when(communicatorMock.sendBase64Action(RoutingAction.GET_SCREENSHOT)).thenReturn(screenshotPortraitData);
+        when(communicatorMock.sendActionAsync(RoutingAction.GET_SCREEN_ORIENTATION)).thenReturn(CompletableFuture.<Object> completedFuture(ScreenOrientation.PORTRAIT));
+        when(communicatorMock.getDeviceResolution()).thenReturn(resolutionPortrait);
+
+        AccessibilityElement elementProperties = spy(new AccessibilityElement());
+        when(elementProperties.getBounds()).thenReturn(boundsPortrait);
+        AccessibilityElementUtils elementUtils = new AccessibilityElementUtils(communicatorMock);
+        List<UiElement> elements = Arrays.<UiElement> asList(new AccessibilityUiElement(elementProperties,
+                                                                                         elementUtils,
+                                                                                         communicatorMock),
+                                                             new AccessibilityUiElement(elementProperties,
+                                                                                        elementUtils,
+                                                                                        communicatorMock));
+
+        Screen screen = new Screen(communicatorMock, null);
+        List<Image> elementImages = screen.getElementImages(elements);
+
+        File expectedImageFile = new File(TestResources.ELEMENT_PORTRAIT_PATH);
+        Image expectedImage = new Image(ImageIO.read(expectedImageFile));
+        assertEquals("Unexpected number of element images.", elements.size(), elementImages.size());
+        for (Image elementImage : elementImages) {
+            assertTrue(RECEIVED_DIFFERENT_IMAGES_MESSAGE, expectedImage.equals(elementImage));
+        }
+        verify(communicatorMock, times(1)).sendBase64Action(RoutingAction.GET_SCREENSHOT);
+    }
 }
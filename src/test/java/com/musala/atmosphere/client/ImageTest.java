@@ -16,8 +16,11 @@
 
 package com.musala.atmosphere.client;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.awt.image.BufferedImage;
@@ -30,6 +33,8 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.musala.atmosphere.commons.geometry.Point;
+
 /**
  * 
  * @author denis.bialev
@@ -119,6 +124,129 @@ public class ImageTest {
         assertFalse("Equals returned true while comparing with null image.", image.equals(imageToEquals));
     }
 
+    @Test
+    public void testContainsSubimage() throws Exception {
+        BufferedImage bufferedImage = image.getBufferedImage();
+        Image subimage = new Image(bufferedImage.getSubimage(bufferedImage.getWidth() / 4,
+                                                             bufferedImage.getHeight() / 3,
+                                                             bufferedImage.getWidth() / 2,
+                                                             bufferedImage.getHeight() / 3));
+
+        assertTrue("The image does not contain its own subimage.", image.containsImage(subimage));
+    }
+
+    @Test
+    public void testContainsImageLargerImage() throws Exception {
+        BufferedImage bufferedImage = image.getBufferedImage();
+        Image largerImage = new Image(new BufferedImage(bufferedImage.getWidth() + 1,
+                                                        bufferedImage.getHeight(),
+                                                        BufferedImage.TYPE_INT_ARGB));
+
+        assertFalse("The image contains a larger image.", image.containsImage(largerImage));
+    }
+
+    @Test
+    public void testGetPixelsMatchesGetRGB() throws Exception {
+        int[] imageTypes = {BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_3BYTE_BGR,
+                BufferedImage.TYPE_4BYTE_ABGR, BufferedImage.TYPE_USHORT_565_RGB};
+
+        for (int imageType : imageTypes) {
+            BufferedImage bufferedImage = new BufferedImage(image.getWidth(), image.getHeight(), imageType);
+            bufferedImage.getGraphics().drawImage(image.getBufferedImage(), 0, 0, null);
+            BufferedImage subimage = bufferedImage.getSubimage(1, 2, image.getWidth() - 3, image.getHeight() - 4);
+
+            for (BufferedImage testedImage : new BufferedImage[] {bufferedImage, subimage}) {
+                int width = testedImage.getWidth();
+                int height = testedImage.getHeight();
+                int[] expectedPixels = testedImage.getRGB(0, 0, width, height, null, 0, width);
+
+                assertArrayEquals("The pixels differ from the RGB values for image type " + imageType,
+                                  expectedPixels,
+                                  new Image(testedImage).getPixels());
+            }
+        }
+    }
+
+    private Image createNoisySubimage(int left, int top, int width, int height, int blueNoise) {
+        BufferedImage noisyImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int pixel = image.getRGB(left + x, top + y);
+                int blue = pixel & 0xff;
+                int noisyBlue = blue < 128 ? blue + blueNoise : blue - blueNoise;
+                noisyImage.setRGB(x, y, (pixel & 0xffffff00) | noisyBlue);
+            }
+        }
+
+        return new Image(noisyImage);
+    }
+
+    @Test
+    public void testContainsImageWithTolerance() throws Exception {
+        // the region is unique in the test image, which repeats some of its rows
+        int left = image.getWidth() / 5;
+        int top = image.getHeight() / 4;
+        Image noisyImage = createNoisySubimage(left, top, image.getWidth() / 2, image.getHeight() / 3, 2);
+
+        assertFalse("The exact search found an image with different colors.", image.containsImage(noisyImage));
+
+        ImageMatch match = image.containsImage(noisyImage, new MatchOptions(2, 1.0));
+        assertNotNull("The tolerant search did not find the image.", match);
+        Point location = match.getLocation();
+        assertEquals("The image was found at a wrong horizontal location.", left, location.getX());
+        assertEquals("The image was found at a wrong vertical location.", top, location.getY());
+        assertEquals("The score of the match is wrong.", 1.0, match.getScore(), 0);
+    }
+
+    @Test
+    public void testContainsImageBelowSimilarityThreshold() throws Exception {
+        Image noisyImage = createNoisySubimage(10, 20, image.getWidth() / 2, image.getHeight() / 3, 2);
+
+        assertNull("An image with too different colors was found.",
+                   image.containsImage(noisyImage, new MatchOptions(1, 0.9)));
+    }
+
+    @Test
+    public void testContainsImageMissingImage() throws Exception {
+        Image missingImage = createNoisySubimage(10, 20, image.getWidth() / 2, image.getHeight() / 3, 100);
+        MatchOptions options = new MatchOptions(2, 0.95);
+
+        assertNull("The exhaustive search found a missing image.", image.containsImage(missingImage, options));
+
+        options.setExhaustiveSearch(false);
+        assertNull("The pyramid search found a missing image.", image.containsImage(missingImage, options));
+    }
+
+    @Test
+    public void testContainsImageWithExhaustiveSearch() throws Exception {
+        int left = image.getWidth() / 5;
+        int top = image.getHeight() / 4;
+        Image noisyImage = createNoisySubimage(left, top, image.getWidth() / 3, image.getHeight() / 3, 1);
+        MatchOptions options = new MatchOptions(1, 1.0);
+        assertTrue("The exhaustive search is not enabled by default.", options.isExhaustiveSearch());
+
+        ImageMatch match = image.containsImage(noisyImage, options);
+        assertNotNull("The exhaustive search did not find the image.", match);
+        assertEquals("The image was found at a wrong horizontal location.", left, match.getLocation().getX());
+        assertEquals("The image was found at a wrong vertical location.", top, match.getLocation().getY());
+    }
+
+    @Test
+    public void testContainsImageWithExactOptions() throws Exception {
+        BufferedImage subimage = image.getBufferedImage().getSubimage(30, 40, 50, 60);
+
+        ImageMatch match = image.containsImage(new Image(subimage), new MatchOptions());
+        assertNotNull("The exact search did not find the subimage.", match);
+        Point location = match.getLocation();
+        assertEquals("The subimage was found at a wrong horizontal location.", 30, location.getX());
+        assertEquals("The subimage was found at a wrong vertical location.", 40, location.getY());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMatchOptionsInvalidThreshold() throws Exception {
+        new MatchOptions(0, 1.5);
+    }
+
     @After
     public void TearDown() {
         File savedImageFile = new File(TestResources.SAVED_IMAGE_NAME);
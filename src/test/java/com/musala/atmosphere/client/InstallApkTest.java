@@ -24,11 +24,13 @@ import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.lang.reflect.Field;
+import java.util.concurrent.CompletableFuture;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -87,19 +89,29 @@ public class InstallApkTest {
     @Test
     public void appendingErrorTest() throws Exception {
         when(dispatcherMock.route(any(), anyLong(), eq(RoutingAction.APK_INIT_INSTALL))).thenReturn(null);
-        doThrow(new CommandFailedException()).when(dispatcherMock)
-                                             .route(any(),
-                                                    anyLong(),
-                                                    eq(RoutingAction.APK_APPEND_DATA),
-                                                    any(),
-                                                    anyInt());
+        CompletableFuture<Object> failedAppend = new CompletableFuture<>();
+        failedAppend.completeExceptionally(new CommandFailedException());
+        when(dispatcherMock.routeWithFuture(any(),
+                                            anyLong(),
+                                            eq(RoutingAction.APK_APPEND_DATA),
+                                            any(),
+                                            anyInt())).thenReturn(failedAppend);
 
         assertFalse(device.installAPK(TestResources.PATH_TO_APK_FILE));
-        verify(dispatcherMock, times(1)).route(any(), anyLong(), eq(RoutingAction.APK_APPEND_DATA), any(), anyLong());
+        verify(dispatcherMock, times(1)).routeWithFuture(any(),
+                                                         anyLong(),
+                                                         eq(RoutingAction.APK_APPEND_DATA),
+                                                         any(),
+                                                         anyLong());
     }
 
     @Test
     public void installationFailedCommandExecutionTest() throws Exception {
+        when(dispatcherMock.routeWithFuture(any(),
+                                            anyLong(),
+                                            eq(RoutingAction.APK_APPEND_DATA),
+                                            any(),
+                                            anyInt())).thenReturn(CompletableFuture.completedFuture(null));
         doThrow(new CommandFailedException()).when(dispatcherMock)
                                              .route(any(),
                                                     anyLong(),
@@ -109,4 +121,27 @@ public class InstallApkTest {
         assertFalse(device.installAPK(TestResources.PATH_TO_APK_FILE));
     }
 
+    @Test
+    public void asyncAppendingErrorTest() throws Exception {
+        CompletableFuture<Object> voidResponse = CompletableFuture.completedFuture(null);
+        when(dispatcherMock.routeWithFuture(any(),
+                                            anyLong(),
+                                            eq(RoutingAction.APK_INIT_INSTALL))).thenReturn(voidResponse);
+        CompletableFuture<Object> failedAppend = new CompletableFuture<>();
+        failedAppend.completeExceptionally(new CommandFailedException());
+        when(dispatcherMock.routeWithFuture(any(),
+                                            anyLong(),
+                                            eq(RoutingAction.APK_APPEND_DATA),
+                                            any(),
+                                            anyInt())).thenReturn(failedAppend);
+        when(dispatcherMock.routeWithFuture(any(), anyLong(), eq(RoutingAction.APK_DISCARD))).thenReturn(voidResponse);
+
+        assertFalse(device.installAPKAsync(TestResources.PATH_TO_APK_FILE).join());
+        verify(dispatcherMock, never()).routeWithFuture(any(),
+                                                        anyLong(),
+                                                        eq(RoutingAction.APK_BUILD_AND_INSTALL),
+                                                        anyBoolean());
+        verify(dispatcherMock, times(1)).routeWithFuture(any(), anyLong(), eq(RoutingAction.APK_DISCARD));
+    }
+
 }
@@ -0,0 +1,130 @@
+// This file is part of the ATMOSPHERE mobile testing framework.
+// Copyright (C) 2016 MusalaSoft
+//
+// ATMOSPHERE is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// ATMOSPHERE is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with ATMOSPHERE.  If not, see <http://www.gnu.org/licenses/>.
+
+package com.musala.atmosphere.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests {@link LogcatFileWriter}
+ *
+ * @author dimcho.nedev
+ */
+public class LogcatFileWriterTest {
+    private static final List<String> TEST_LINES = Arrays.asList("first line", "second line", "third line");
+
+    private File logDirectory;
+
+    private String logFilename;
+
+    @Before
+    public void setUp() throws IOException {
+        logDirectory = Files.createTempDirectory("logcat").toFile();
+        logFilename = new File(logDirectory, "device.log").getPath();
+    }
+
+    @After
+    public void tearDown() {
+        for (File logFile : logDirectory.listFiles()) {
+            logFile.delete();
+        }
+        logDirectory.delete();
+    }
+
+    private List<String> readLines(String filename) throws IOException {
+        return Files.readAllLines(new File(filename).toPath(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testWriteLines() throws IOException {
+        try (LogcatFileWriter writer = new LogcatFileWriter(logFilename, false, 0, null)) {
+            writer.write(TEST_LINES);
+        }
+
+        assertEquals("The written lines differ from the given ones.", TEST_LINES, readLines(logFilename));
+    }
+
+    @Test
+    public void testWriteRotatesFiles() throws IOException {
+        // each line fits in a file, but no two lines do
+        try (LogcatFileWriter writer = new LogcatFileWriter(logFilename, false, "second line".length() + 3, null)) {
+            writer.write(TEST_LINES);
+        }
+
+        assertEquals("Unexpected content of the first file.", TEST_LINES.subList(0, 1), readLines(logFilename));
+        assertEquals("Unexpected content of the second file.",
+                     TEST_LINES.subList(1, 2),
+                     readLines(new File(logDirectory, "device.1.log").getPath()));
+        assertEquals("Unexpected content of the third file.",
+                     TEST_LINES.subList(2, 3),
+                     readLines(new File(logDirectory, "device.2.log").getPath()));
+    }
+
+    @Test
+    public void testWriteCompressedLines() throws IOException {
+        LogcatFileWriter writer = new LogcatFileWriter(logFilename, true, 0, null);
+        writer.write(TEST_LINES);
+        writer.close();
+
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(logFilename
+                + ".gz")), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+
+        assertFalse("An uncompressed file was written.", new File(logFilename).exists());
+        assertEquals("The decompressed lines differ from the given ones.", TEST_LINES, lines);
+    }
+
+    @Test
+    public void testConsoleEcho() throws IOException {
+        ByteArrayOutputStream consoleOutput = new ByteArrayOutputStream();
+        try (LogcatFileWriter writer = new LogcatFileWriter(logFilename,
+                                                            false,
+                                                            0,
+                                                            new PrintStream(consoleOutput, true, "UTF-8"))) {
+            writer.write(TEST_LINES);
+        }
+
+        String echo = new String(consoleOutput.toByteArray(), StandardCharsets.UTF_8);
+        for (String line : TEST_LINES) {
+            assertTrue("A line was not echoed to the console.", echo.contains(line));
+        }
+    }
+}
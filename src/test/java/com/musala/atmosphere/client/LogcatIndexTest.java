@@ -0,0 +1,171 @@
+// This file is part of the ATMOSPHERE mobile testing framework.
+// Copyright (C) 2016 MusalaSoft
+//
+// ATMOSPHERE is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// ATMOSPHERE is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with ATMOSPHERE.  If not, see <http://www.gnu.org/licenses/>.
+
+package com.musala.atmosphere.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.musala.atmosphere.client.device.log.LogCatLevel;
+
+/**
+ * Tests {@link LogcatIndex}
+ *
+ * @author dimcho.nedev
+ */
+public class LogcatIndexTest {
+    private static final String THREADTIME_ERROR_LINE = "10-17 12:30:45.123  1234  5678 E ActivityManager: ANR in com.example";
+
+    private static final String THREADTIME_INFO_LINE = "10-17 12:30:45.456  1234  5678 I ActivityManager: Start proc com.example";
+
+    private static final String BRIEF_DEBUG_LINE = "D/MyTag  ( 4321): debug message";
+
+    private static final String UNPARSED_LINE = "--------- beginning of main";
+
+    private static final long AWAIT_TIMEOUT = 5000;
+
+    private LogcatIndex index;
+
+    @Before
+    public void setUp() {
+        index = new LogcatIndex();
+    }
+
+    @Test
+    public void testParseThreadtimeLine() {
+        index.addLines(Arrays.asList(THREADTIME_ERROR_LINE));
+
+        LogcatEntry entry = index.find(null, null).get(0);
+        assertEquals(LogCatLevel.ERROR, entry.getLevel());
+        assertEquals("ActivityManager", entry.getTag());
+        assertEquals("ANR in com.example", entry.getMessage());
+        assertEquals(THREADTIME_ERROR_LINE, entry.getLine());
+    }
+
+    @Test
+    public void testParseBriefLine() {
+        index.addLines(Arrays.asList(BRIEF_DEBUG_LINE));
+
+        LogcatEntry entry = index.find(null, null).get(0);
+        assertEquals(LogCatLevel.DEBUG, entry.getLevel());
+        assertEquals("MyTag", entry.getTag());
+        assertEquals("debug message", entry.getMessage());
+    }
+
+    @Test
+    public void testUnparsedLineIsKept() {
+        index.addLines(Arrays.asList(UNPARSED_LINE));
+
+        LogcatEntry entry = index.find(null, null).get(0);
+        assertNull(entry.getLevel());
+        assertNull(entry.getTag());
+        assertEquals(UNPARSED_LINE, entry.getMessage());
+        assertEquals(0, index.find(LogCatLevel.VERBOSE, null).size());
+    }
+
+    @Test
+    public void testFindByLevelAndTag() {
+        index.addLines(Arrays.asList(THREADTIME_ERROR_LINE, BRIEF_DEBUG_LINE, THREADTIME_INFO_LINE, UNPARSED_LINE));
+
+        List<LogcatEntry> infoOrHigher = index.find(LogCatLevel.INFO, null);
+        assertEquals(2, infoOrHigher.size());
+        assertEquals(THREADTIME_ERROR_LINE, infoOrHigher.get(0).getLine());
+        assertEquals(THREADTIME_INFO_LINE, infoOrHigher.get(1).getLine());
+
+        List<LogcatEntry> activityManagerErrors = index.find(LogCatLevel.ERROR, "ActivityManager");
+        assertEquals(1, activityManagerErrors.size());
+        assertEquals(THREADTIME_ERROR_LINE, activityManagerErrors.get(0).getLine());
+
+        assertEquals(1, index.find(null, "MyTag").size());
+        assertEquals(0, index.find(null, "MissingTag").size());
+        assertEquals(4, index.find(null, null).size());
+    }
+
+    @Test
+    public void testFindSince() throws Exception {
+        index.addLines(Arrays.asList(THREADTIME_ERROR_LINE));
+        Thread.sleep(20);
+        long since = System.currentTimeMillis();
+        index.addLines(Arrays.asList(THREADTIME_INFO_LINE));
+
+        List<LogcatEntry> found = index.find(null, "ActivityManager", since);
+        assertEquals(1, found.size());
+        assertEquals(THREADTIME_INFO_LINE, found.get(0).getLine());
+    }
+
+    @Test
+    public void testOldestEntriesAreEvicted() {
+        index = new LogcatIndex(2);
+        index.addLines(Arrays.asList(THREADTIME_ERROR_LINE, BRIEF_DEBUG_LINE, THREADTIME_INFO_LINE));
+
+        assertEquals(2, index.size());
+        assertEquals(0, index.find(LogCatLevel.ERROR, null).size());
+        assertEquals(1, index.find(null, "ActivityManager").size());
+        assertEquals(1, index.find(null, "MyTag").size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCapacity() {
+        new LogcatIndex(0);
+    }
+
+    @Test
+    public void testAwaitLineAlreadyReceived() throws Exception {
+        index.addLines(Arrays.asList(THREADTIME_ERROR_LINE, THREADTIME_INFO_LINE));
+
+        LogcatEntry entry = index.awaitLine(Pattern.compile("com\\.example"), 0);
+        assertNotNull(entry);
+        assertEquals(THREADTIME_ERROR_LINE, entry.getLine());
+    }
+
+    @Test
+    public void testAwaitLineReceivedLater() throws Exception {
+        Thread producer = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                return;
+            }
+            index.addLines(Arrays.asList(BRIEF_DEBUG_LINE));
+            index.addLines(Arrays.asList(THREADTIME_ERROR_LINE));
+        });
+        producer.start();
+
+        LogcatEntry entry = index.awaitLine(Pattern.compile("ANR in"), AWAIT_TIMEOUT);
+        producer.join();
+
+        assertNotNull(entry);
+        assertEquals(LogCatLevel.ERROR, entry.getLevel());
+    }
+
+    @Test
+    public void testAwaitLineTimeout() throws Exception {
+        index.addLines(Arrays.asList(BRIEF_DEBUG_LINE));
+
+        long start = System.currentTimeMillis();
+        assertNull(index.awaitLine(Pattern.compile("ANR in"), 50));
+        assertTrue(System.currentTimeMillis() - start >= 50);
+    }
+}
@@ -0,0 +1,176 @@
+// This file is part of the ATMOSPHERE mobile testing framework.
+// Copyright (C) 2016 MusalaSoft
+//
+// ATMOSPHERE is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// ATMOSPHERE is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with ATMOSPHERE.  If not, see <http://www.gnu.org/licenses/>.
+
+package com.musala.atmosphere.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.musala.atmosphere.commons.RoutingAction;
+import com.musala.atmosphere.commons.util.Pair;
+
+/**
+ * Tests {@link LogcatStreamer}
+ *
+ * @author dimcho.nedev
+ */
+public class LogcatStreamerTest {
+    private static final String TEST_SERIAL_NUMBER = "test_serial_number";
+
+    private static final long WRITE_TIMEOUT = 5000;
+
+    private DeviceCommunicator communicatorMock;
+
+    private File logFile;
+
+    private LogcatStreamer streamer;
+
+    @Before
+    public void setUp() throws Exception {
+        communicatorMock = mock(DeviceCommunicator.class);
+        logFile = File.createTempFile("logcat", ".log");
+        LogcatFileWriter logWriter = new LogcatFileWriter(logFile.getPath(), false, 0, null);
+        streamer = new LogcatStreamer(communicatorMock, TEST_SERIAL_NUMBER, logWriter, new LogcatIndex());
+    }
+
+    @After
+    public void tearDown() {
+        streamer.stop();
+        logFile.delete();
+    }
+
+    private List<Pair<Integer, String>> createBatch(int firstLineId, String... lines) {
+        List<Pair<Integer, String>> batch = new ArrayList<>();
+        for (int i = 0; i < lines.length; i++) {
+            batch.add(new Pair<Integer, String>(firstLineId + i, lines[i]));
+        }
+
+        return batch;
+    }
+
+    private List<String> waitForLines(int expectedLinesCount) throws IOException, InterruptedException {
+        long deadline = System.currentTimeMillis() + WRITE_TIMEOUT;
+        List<String> lines = Files.readAllLines(logFile.toPath(), StandardCharsets.UTF_8);
+        while (lines.size() < expectedLinesCount && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            lines = Files.readAllLines(logFile.toPath(), StandardCharsets.UTF_8);
+        }
+
+        return lines;
+    }
+
+    @Test
+    public void testFetchedLinesAreWrittenInOrder() throws Exception {
+        when(communicatorMock.sendAction(RoutingAction.GET_LOGCAT_BUFFER,
+                                         TEST_SERIAL_NUMBER)).thenReturn(createBatch(0, "first", "second"))
+                                                             .thenReturn(createBatch(2, "third"))
+                                                             .thenReturn(new ArrayList<Pair<Integer, String>>());
+
+        streamer.start();
+
+        assertEquals("The fetched lines were not written in order.",
+                     Arrays.asList("first", "second", "third"),
+                     waitForLines(3));
+    }
+
+    @Test
+    public void testIdleLogcatIsPolledWithBackoff() throws Exception {
+        when(communicatorMock.sendAction(RoutingAction.GET_LOGCAT_BUFFER,
+                                         TEST_SERIAL_NUMBER)).thenReturn(new ArrayList<Pair<Integer, String>>());
+        final List<Long> pollIntervals = new ArrayList<>();
+        final CountDownLatch pollsDone = new CountDownLatch(1);
+        LogcatFileWriter logWriter = new LogcatFileWriter(logFile.getPath(), false, 0, null);
+        streamer = new LogcatStreamer(communicatorMock, TEST_SERIAL_NUMBER, logWriter, new LogcatIndex()) {
+            @Override
+            void awaitNextPoll(long pollInterval) {
+                pollIntervals.add(pollInterval);
+                if (pollIntervals.size() == 6) {
+                    stop();
+                    pollsDone.countDown();
+                }
+            }
+        };
+
+        streamer.start();
+
+        assertTrue("The idle LogCat was not polled.", pollsDone.await(WRITE_TIMEOUT, TimeUnit.MILLISECONDS));
+        assertEquals("The poll interval did not back off while the LogCat was idle.",
+                     Arrays.asList(100L, 200L, 400L, 800L, 1000L, 1000L),
+                     pollIntervals);
+    }
+
+    @Test
+    public void testStopEndsFetching() throws Exception {
+        final AtomicInteger requestsCount = new AtomicInteger();
+        when(communicatorMock.sendAction(RoutingAction.GET_LOGCAT_BUFFER,
+                                         TEST_SERIAL_NUMBER)).thenAnswer(invocation -> {
+                                             return createBatch(requestsCount.getAndIncrement(), "line");
+                                         });
+
+        streamer.start();
+        assertTrue("The fetched line was not written.", waitForLines(1).size() >= 1);
+
+        assertTrue("The fetching did not end after the stop.", streamer.stopAndWait(WRITE_TIMEOUT));
+        int fetchedLinesCount = requestsCount.get();
+
+        assertEquals("The fetched lines were not written before the stop completed.",
+                     fetchedLinesCount,
+                     Files.readAllLines(logFile.toPath(), StandardCharsets.UTF_8).size());
+        verify(communicatorMock, times(fetchedLinesCount)).sendAction(RoutingAction.GET_LOGCAT_BUFFER,
+                                                                      TEST_SERIAL_NUMBER);
+    }
+
+    @Test
+    public void testStopAndWaitWaitsForRequestInFlight() throws Exception {
+        final CountDownLatch requestSent = new CountDownLatch(1);
+        final CountDownLatch responseReceived = new CountDownLatch(1);
+        when(communicatorMock.sendAction(RoutingAction.GET_LOGCAT_BUFFER,
+                                         TEST_SERIAL_NUMBER)).thenAnswer(invocation -> {
+                                             requestSent.countDown();
+                                             responseReceived.await();
+                                             return new ArrayList<Pair<Integer, String>>();
+                                         });
+
+        streamer.start();
+        assertTrue("No lines were requested.", requestSent.await(WRITE_TIMEOUT, TimeUnit.MILLISECONDS));
+
+        assertFalse("The fetching ended while a request was in flight.", streamer.stopAndWait(100));
+
+        responseReceived.countDown();
+        assertTrue("The fetching did not end after the request completed.", streamer.stopAndWait(WRITE_TIMEOUT));
+        verify(communicatorMock, times(1)).sendAction(RoutingAction.GET_LOGCAT_BUFFER, TEST_SERIAL_NUMBER);
+    }
+}
@@ -0,0 +1,147 @@
+// This file is part of the ATMOSPHERE mobile testing framework.
+// Copyright (C) 2016 MusalaSoft
+//
+// ATMOSPHERE is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// ATMOSPHERE is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with ATMOSPHERE.  If not, see <http://www.gnu.org/licenses/>.
+
+package com.musala.atmosphere.client;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ *
+ * @author dimcho.nedev
+ *
+ */
+public class PixelMatcherTest {
+    private static final int IMAGE_WIDTH = 300;
+
+    private static final int IMAGE_HEIGHT = 500;
+
+    private static final int SOUGHT_SIZE = 20;
+
+    private static final int PIXEL_VALUES = 4;
+
+    private static ForkJoinPool pool;
+
+    private int[] imagePixels;
+
+    @BeforeClass
+    public static void setUpPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterClass
+    public static void tearDownPool() {
+        pool.shutdown();
+    }
+
+    private int[] createImage() {
+        // Few distinct pixel values make many partial matches, so the verification of candidate positions is exercised.
+        Random random = new Random(IMAGE_WIDTH);
+        int[] pixels = new int[IMAGE_WIDTH * IMAGE_HEIGHT];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = random.nextInt(PIXEL_VALUES);
+        }
+
+        return pixels;
+    }
+
+    private int[] cut(int[] pixels, int left, int top) {
+        int[] soughtPixels = new int[SOUGHT_SIZE * SOUGHT_SIZE];
+        for (int row = 0; row < SOUGHT_SIZE; row++) {
+            System.arraycopy(pixels, (top + row) * IMAGE_WIDTH + left, soughtPixels, row * SOUGHT_SIZE, SOUGHT_SIZE);
+        }
+
+        return soughtPixels;
+    }
+
+    private void paste(int[] soughtPixels, int[] pixels, int left, int top) {
+        for (int row = 0; row < SOUGHT_SIZE; row++) {
+            System.arraycopy(soughtPixels, row * SOUGHT_SIZE, pixels, (top + row) * IMAGE_WIDTH + left, SOUGHT_SIZE);
+        }
+    }
+
+    @Test
+    public void testFindPresentImage() {
+        imagePixels = createImage();
+        int left = 135;
+        int top = 421;
+        PixelMatcher matcher = new PixelMatcher(cut(imagePixels, left, top), SOUGHT_SIZE, SOUGHT_SIZE);
+
+        int expectedIndex = top * IMAGE_WIDTH + left;
+        assertEquals("The sought image was not found at its position.",
+                     expectedIndex,
+                     matcher.find(imagePixels, IMAGE_WIDTH, IMAGE_HEIGHT));
+        assertEquals("The parallel search did not find the sought image at its position.",
+                     expectedIndex,
+                     matcher.findParallel(imagePixels, IMAGE_WIDTH, IMAGE_HEIGHT, pool));
+    }
+
+    @Test
+    public void testFindImageAtLastPosition() {
+        imagePixels = createImage();
+        int left = IMAGE_WIDTH - SOUGHT_SIZE;
+        int top = IMAGE_HEIGHT - SOUGHT_SIZE;
+        PixelMatcher matcher = new PixelMatcher(cut(imagePixels, left, top), SOUGHT_SIZE, SOUGHT_SIZE);
+
+        assertEquals("The parallel search did not find the sought image in the last band.",
+                     top * IMAGE_WIDTH + left,
+                     matcher.findParallel(imagePixels, IMAGE_WIDTH, IMAGE_HEIGHT, pool));
+    }
+
+    @Test
+    public void testFindMissingImage() {
+        imagePixels = createImage();
+        int[] soughtPixels = new int[SOUGHT_SIZE * SOUGHT_SIZE];
+        for (int i = 0; i < soughtPixels.length; i++) {
+            soughtPixels[i] = PIXEL_VALUES + i;
+        }
+        PixelMatcher matcher = new PixelMatcher(soughtPixels, SOUGHT_SIZE, SOUGHT_SIZE);
+
+        assertEquals("A missing image was found.",
+                     PixelMatcher.NOT_FOUND,
+                     matcher.find(imagePixels, IMAGE_WIDTH, IMAGE_HEIGHT));
+        assertEquals("A missing image was found by the parallel search.",
+                     PixelMatcher.NOT_FOUND,
+                     matcher.findParallel(imagePixels, IMAGE_WIDTH, IMAGE_HEIGHT, pool));
+    }
+
+    @Test
+    public void testParallelSearchFindsFirstOccurrence() {
+        imagePixels = createImage();
+        int left = 42;
+        int top = 37;
+        int[] soughtPixels = cut(imagePixels, left, top);
+        paste(soughtPixels, imagePixels, 7, 260);
+        paste(soughtPixels, imagePixels, 211, 455);
+        PixelMatcher matcher = new PixelMatcher(soughtPixels, SOUGHT_SIZE, SOUGHT_SIZE);
+
+        int expectedIndex = top * IMAGE_WIDTH + left;
+        assertEquals("The sequential search did not find the first occurrence.",
+                     expectedIndex,
+                     matcher.find(imagePixels, IMAGE_WIDTH, IMAGE_HEIGHT));
+        for (int run = 0; run < 20; run++) {
+            assertEquals("The parallel search did not find the first occurrence.",
+                         expectedIndex,
+                         matcher.findParallel(imagePixels, IMAGE_WIDTH, IMAGE_HEIGHT, pool));
+        }
+    }
+}
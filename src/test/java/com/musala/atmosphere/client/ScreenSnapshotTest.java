@@ -0,0 +1,140 @@
+// This file is part of the ATMOSPHERE mobile testing framework.
+// Copyright (C) 2016 MusalaSoft
+//
+// ATMOSPHERE is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// ATMOSPHERE is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with ATMOSPHERE.  If not, see <http://www.gnu.org/licenses/>.
+
+package com.musala.atmosphere.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.musala.atmosphere.client.exceptions.MultipleElementsFoundException;
+import com.musala.atmosphere.client.uiutils.AccessibilityElementUtils;
+import com.musala.atmosphere.commons.RoutingAction;
+import com.musala.atmosphere.commons.exceptions.UiElementFetchingException;
+import com.musala.atmosphere.commons.ui.selector.CssAttribute;
+import com.musala.atmosphere.commons.ui.selector.UiElementSelectionOption;
+import com.musala.atmosphere.commons.ui.selector.UiElementSelector;
+import com.musala.atmosphere.commons.ui.tree.AccessibilityElement;
+
+/**
+ * Tests {@link ScreenSnapshot}
+ *
+ * @author dimcho.nedev
+ */
+public class ScreenSnapshotTest {
+    private static final String BUTTON_CLASS_NAME = "android.widget.Button";
+
+    private static final String TEXT_VIEW_CLASS_NAME = "android.widget.TextView";
+
+    private DeviceCommunicator communicatorMock;
+
+    private ScreenSnapshot snapshot;
+
+    @Before
+    public void setUp() {
+        communicatorMock = mock(DeviceCommunicator.class);
+
+        List<AccessibilityElement> elements = Arrays.asList(createElement(TEXT_VIEW_CLASS_NAME, "Title", "title"),
+                                                            createElement(BUTTON_CLASS_NAME, "OK", "ok_button"),
+                                                            createElement(BUTTON_CLASS_NAME, "Cancel", "cancel_button"));
+
+        snapshot = new ScreenSnapshot(elements, new AccessibilityElementUtils(communicatorMock), communicatorMock);
+    }
+
+    @Test
+    public void testGetElementBySelector() throws Exception {
+        UiElementSelector selector = new UiElementSelector();
+        selector.addSelectionAttribute(CssAttribute.TEXT, UiElementSelectionOption.EQUALS, "OK");
+
+        UiElement element = snapshot.getElement(selector);
+
+        assertEquals("The snapshot returned a wrong element.", "OK", element.getText());
+        verifyZeroInteractions(communicatorMock);
+    }
+
+    @Test
+    public void testGetAllElementsByXPath() throws Exception {
+        List<UiElement> buttons = snapshot.getAllElementsByXPath("//*[@className='" + BUTTON_CLASS_NAME + "']");
+
+        assertEquals("The snapshot returned a wrong number of elements.", 2, buttons.size());
+        verifyZeroInteractions(communicatorMock);
+    }
+
+    @Test
+    public void testGetElementByCSS() throws Exception {
+        UiElement element = snapshot.getElementByCSS("[resourceId=cancel_button]");
+
+        assertEquals("The snapshot returned a wrong element.", "Cancel", element.getText());
+        verifyZeroInteractions(communicatorMock);
+    }
+
+    @Test(expected = MultipleElementsFoundException.class)
+    public void testGetElementWithMultipleMatches() throws Exception {
+        snapshot.getElementByXPath("//*[@className='" + BUTTON_CLASS_NAME + "']");
+    }
+
+    @Test(expected = UiElementFetchingException.class)
+    public void testGetElementWithoutMatches() throws Exception {
+        snapshot.getElementByXPath("//*[@text='Missing']");
+    }
+
+    @Test
+    public void testHasElementWithText() {
+        assertTrue("Expected the snapshot to contain an element with the given text.",
+                   snapshot.hasElementWithText("Title"));
+        assertFalse("Expected the snapshot to not contain an element with the given text.",
+                    snapshot.hasElementWithText("Missing"));
+    }
+
+    @Test
+    public void testHierarchicalQueryIsExecutedOnDevice() throws Exception {
+        String childrenQuery = "//*[@className='android.widget.LinearLayout']/*";
+        AccessibilityElement child = createElement(TEXT_VIEW_CLASS_NAME, "Child", "child");
+        when(communicatorMock.sendAction(eq(RoutingAction.EXECUTE_XPATH_QUERY),
+                                         eq(childrenQuery),
+                                         anyBoolean())).thenReturn(Arrays.asList(child));
+
+        List<UiElement> children = snapshot.getAllElementsByXPath(childrenQuery);
+
+        assertEquals("The snapshot returned a wrong number of elements.", 1, children.size());
+        verify(communicatorMock, times(1)).sendAction(eq(RoutingAction.EXECUTE_XPATH_QUERY), any(), anyBoolean());
+    }
+
+    private static AccessibilityElement createElement(String className, String text, String resourceId) {
+        AccessibilityElement element = spy(new AccessibilityElement());
+        doReturn(className).when(element).getClassName();
+        doReturn(text).when(element).getText();
+        doReturn(resourceId).when(element).getResourceId();
+
+        return element;
+    }
+}
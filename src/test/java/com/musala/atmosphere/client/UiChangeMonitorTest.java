@@ -0,0 +1,176 @@
+// This file is part of the ATMOSPHERE mobile testing framework.
+// Copyright (C) 2016 MusalaSoft
+//
+// ATMOSPHERE is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// ATMOSPHERE is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with ATMOSPHERE.  If not, see <http://www.gnu.org/licenses/>.
+
+package com.musala.atmosphere.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.musala.atmosphere.client.exceptions.DeviceReleasedException;
+import com.musala.atmosphere.commons.RoutingAction;
+
+/**
+ * Tests {@link UiChangeMonitor}
+ *
+ * @author dimcho.nedev
+ */
+public class UiChangeMonitorTest {
+    private static final String TEST_PACKAGE_NAME = "com.example.app";
+
+    private static final String OTHER_TEST_PACKAGE_NAME = "com.example.other";
+
+    private static final int TEST_RESPONSE_WAIT_TIMEOUT = 1000;
+
+    private static final int TEST_WAIT_TIME = TEST_RESPONSE_WAIT_TIMEOUT / 2;
+
+    private static final long VERIFICATION_TIMEOUT = 5000;
+
+    private DeviceCommunicator communicatorMock;
+
+    private UiChangeMonitor monitor;
+
+    private List<UiChangeEvent> receivedEvents;
+
+    @Before
+    public void setUp() {
+        communicatorMock = mock(DeviceCommunicator.class);
+        // the wait time is derived from the response timeout of the dispatcher, no configuration file is needed
+        when(communicatorMock.getResponseWaitTimeout()).thenReturn(TEST_RESPONSE_WAIT_TIMEOUT);
+        monitor = new UiChangeMonitor(communicatorMock);
+        receivedEvents = new CopyOnWriteArrayList<>();
+    }
+
+    @After
+    public void tearDown() {
+        monitor.stop();
+    }
+
+    @Test
+    public void testListenerIsNotifiedOnWindowUpdate() {
+        when(communicatorMock.sendActionAsync(eq(RoutingAction.WAIT_FOR_WINDOW_UPDATE),
+                                              anyString(),
+                                              anyInt())).thenReturn(CompletableFuture.<Object> completedFuture(true))
+                                                        .thenReturn(new CompletableFuture<Object>());
+
+        monitor.addListener(TEST_PACKAGE_NAME, event -> receivedEvents.add(event));
+
+        assertEquals("Expected exactly one event to be received.", 1, receivedEvents.size());
+        assertEquals("Unexpected package name of the received event.",
+                     TEST_PACKAGE_NAME,
+                     receivedEvents.get(0).getPackageName());
+        assertEquals("Unexpected generation of the received event.", 1, receivedEvents.get(0).getGeneration());
+        assertEquals("Unexpected current generation.", 1, monitor.getGeneration());
+        verify(communicatorMock, timeout(VERIFICATION_TIMEOUT).times(2)).sendActionAsync(RoutingAction.WAIT_FOR_WINDOW_UPDATE,
+                                                                                         TEST_PACKAGE_NAME,
+                                                                                         TEST_WAIT_TIME);
+    }
+
+    @Test
+    public void testListenersOfSamePackageShareWait() {
+        when(communicatorMock.sendActionAsync(eq(RoutingAction.WAIT_FOR_WINDOW_UPDATE),
+                                              anyString(),
+                                              anyInt())).thenReturn(new CompletableFuture<Object>());
+
+        monitor.addListener(TEST_PACKAGE_NAME, event -> receivedEvents.add(event));
+        monitor.addListener(TEST_PACKAGE_NAME, event -> receivedEvents.add(event));
+
+        verify(communicatorMock, times(1)).sendActionAsync(RoutingAction.WAIT_FOR_WINDOW_UPDATE,
+                                                           TEST_PACKAGE_NAME,
+                                                           TEST_WAIT_TIME);
+    }
+
+    @Test
+    public void testPackagesAreWaitedForInTurns() {
+        CompletableFuture<Object> firstWindowUpdate = new CompletableFuture<>();
+        when(communicatorMock.sendActionAsync(eq(RoutingAction.WAIT_FOR_WINDOW_UPDATE),
+                                              anyString(),
+                                              anyInt())).thenReturn(firstWindowUpdate)
+                                                        .thenReturn(new CompletableFuture<Object>());
+
+        monitor.addListener(TEST_PACKAGE_NAME, event -> receivedEvents.add(event));
+        monitor.addListener(OTHER_TEST_PACKAGE_NAME, event -> receivedEvents.add(event));
+
+        // only one wait is pending for the whole device
+        verify(communicatorMock, times(1)).sendActionAsync(eq(RoutingAction.WAIT_FOR_WINDOW_UPDATE),
+                                                           anyString(),
+                                                           anyInt());
+
+        firstWindowUpdate.complete(false);
+
+        verify(communicatorMock, timeout(VERIFICATION_TIMEOUT)).sendActionAsync(RoutingAction.WAIT_FOR_WINDOW_UPDATE,
+                                                                                TEST_PACKAGE_NAME,
+                                                                                TEST_WAIT_TIME);
+        verify(communicatorMock, timeout(VERIFICATION_TIMEOUT)).sendActionAsync(RoutingAction.WAIT_FOR_WINDOW_UPDATE,
+                                                                                OTHER_TEST_PACKAGE_NAME,
+                                                                                TEST_WAIT_TIME);
+        assertEquals("No event should be received without a window update.", 0, receivedEvents.size());
+    }
+
+    @Test
+    public void testFailingListenerDoesNotStopNotifications() {
+        CompletableFuture<Object> windowUpdate = new CompletableFuture<>();
+        when(communicatorMock.sendActionAsync(eq(RoutingAction.WAIT_FOR_WINDOW_UPDATE),
+                                              anyString(),
+                                              anyInt())).thenReturn(windowUpdate)
+                                                        .thenReturn(new CompletableFuture<Object>());
+
+        monitor.addListener(TEST_PACKAGE_NAME, event -> {
+            throw new IllegalStateException();
+        });
+        monitor.addListener(TEST_PACKAGE_NAME, event -> receivedEvents.add(event));
+        windowUpdate.complete(true);
+
+        assertEquals("Expected exactly one event to be received.", 1, receivedEvents.size());
+    }
+
+    @Test
+    public void testReleasedDeviceStopsObservation() {
+        CompletableFuture<Object> releasedResult = new CompletableFuture<>();
+        releasedResult.completeExceptionally(new DeviceReleasedException("released"));
+        when(communicatorMock.sendActionAsync(eq(RoutingAction.WAIT_FOR_WINDOW_UPDATE),
+                                              anyString(),
+                                              anyInt())).thenReturn(releasedResult);
+
+        monitor.addListener(TEST_PACKAGE_NAME, event -> receivedEvents.add(event));
+
+        try {
+            monitor.addListener(OTHER_TEST_PACKAGE_NAME, event -> receivedEvents.add(event));
+            fail("The observation should be stopped after the device is released.");
+        } catch (DeviceReleasedException e) {
+            // expected
+        }
+
+        verify(communicatorMock, times(1)).sendActionAsync(eq(RoutingAction.WAIT_FOR_WINDOW_UPDATE),
+                                                           anyString(),
+                                                           anyInt());
+    }
+}
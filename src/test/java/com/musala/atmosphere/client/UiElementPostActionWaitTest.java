@@ -0,0 +1,114 @@
+// This file is part of the ATMOSPHERE mobile testing framework.
+// Copyright (C) 2016 MusalaSoft
+//
+// ATMOSPHERE is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// ATMOSPHERE is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with ATMOSPHERE.  If not, see <http://www.gnu.org/licenses/>.
+
+package com.musala.atmosphere.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isNull;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.musala.atmosphere.client.uiutils.AccessibilityElementUtils;
+import com.musala.atmosphere.client.util.ConfigurationPropertiesLoader;
+import com.musala.atmosphere.client.util.PostActionWaitPolicy;
+import com.musala.atmosphere.commons.RoutingAction;
+import com.musala.atmosphere.commons.geometry.Bounds;
+import com.musala.atmosphere.commons.geometry.Point;
+import com.musala.atmosphere.commons.ui.tree.AccessibilityElement;
+
+/**
+ * Tests the wait after the {@link UiElement} operations.
+ *
+ * @author dimcho.nedev
+ */
+public class UiElementPostActionWaitTest {
+    private static final int TEST_TIMEOUT = 5000;
+
+    private static final int TEST_PASSKEY = 0;
+
+    private static final String TEST_DEVICE_ID = "test_device_id";
+
+    private static final String OTHER_TEST_DEVICE_ID = "other_test_device_id";
+
+    private DeviceCommunicator communicatorMock;
+
+    private UiElement element;
+
+    @Before
+    public void setUp() {
+        communicatorMock = mock(DeviceCommunicator.class);
+        when(communicatorMock.sendAction(eq(RoutingAction.CHECK_ELEMENT_PRESENCE), any(), anyBoolean())).thenReturn(true);
+        when(communicatorMock.sendAction(eq(RoutingAction.GESTURE_TAP), any())).thenReturn(true);
+
+        AccessibilityElement properties = spy(new AccessibilityElement());
+        doReturn(new Bounds(new Point(0, 0), new Point(100, 100))).when(properties).getBounds();
+
+        element = new AccessibilityUiElement(properties, new AccessibilityElementUtils(communicatorMock), communicatorMock);
+    }
+
+    @Test
+    public void testWaitForIdleStopsWhenNoUpdatesOccur() {
+        setPostActionWait(PostActionWaitPolicy.WAIT_FOR_IDLE, TEST_TIMEOUT);
+        when(communicatorMock.sendAction(eq(RoutingAction.WAIT_FOR_WINDOW_UPDATE),
+                                         isNull(),
+                                         anyInt())).thenReturn(true, true, false);
+
+        element.tap();
+
+        verify(communicatorMock, times(3)).sendAction(eq(RoutingAction.WAIT_FOR_WINDOW_UPDATE), isNull(), anyInt());
+    }
+
+    @Test
+    public void testNoWait() {
+        setPostActionWait(PostActionWaitPolicy.NONE, TEST_TIMEOUT);
+
+        element.tap();
+
+        verify(communicatorMock, never()).sendAction(eq(RoutingAction.WAIT_FOR_WINDOW_UPDATE), any(), anyInt());
+    }
+
+    @Test
+    public void testPolicyIsSetPerDevice() {
+        DeviceCommunicator communicator = new DeviceCommunicator(TEST_PASSKEY, TEST_DEVICE_ID);
+        DeviceCommunicator otherCommunicator = new DeviceCommunicator(TEST_PASSKEY, OTHER_TEST_DEVICE_ID);
+
+        new Device(communicator).setPostActionWait(PostActionWaitPolicy.NONE, 0);
+
+        assertEquals(PostActionWaitPolicy.NONE, communicator.getPostActionWaitPolicy());
+        assertEquals(0, communicator.getPostActionWaitTimeout());
+        assertEquals(ConfigurationPropertiesLoader.getPostActionWaitPolicy(),
+                     otherCommunicator.getPostActionWaitPolicy());
+        assertEquals(ConfigurationPropertiesLoader.getPostActionWaitTimeout(),
+                     otherCommunicator.getPostActionWaitTimeout());
+    }
+
+    private void setPostActionWait(PostActionWaitPolicy policy, int timeout) {
+        when(communicatorMock.getPostActionWaitPolicy()).thenReturn(policy);
+        when(communicatorMock.getPostActionWaitTimeout()).thenReturn(timeout);
+    }
+}
@@ -0,0 +1,172 @@
+// This file is part of the ATMOSPHERE mobile testing framework.
+// Copyright (C) 2016 MusalaSoft
+//
+// ATMOSPHERE is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// ATMOSPHERE is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with ATMOSPHERE.  If not, see <http://www.gnu.org/licenses/>.
+
+package com.musala.atmosphere.client;
+
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.anyVararg;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Field;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.musala.atmosphere.client.device.HardwareButton;
+import com.musala.atmosphere.client.exceptions.StaleElementReferenceException;
+import com.musala.atmosphere.client.uiutils.AccessibilityElementUtils;
+import com.musala.atmosphere.client.util.PostActionWaitPolicy;
+import com.musala.atmosphere.client.websocket.ClientDispatcher;
+import com.musala.atmosphere.commons.RoutingAction;
+import com.musala.atmosphere.commons.geometry.Bounds;
+import com.musala.atmosphere.commons.geometry.Point;
+import com.musala.atmosphere.commons.ui.tree.AccessibilityElement;
+
+/**
+ * Tests the revalidation of the {@link UiElement UI elements} before the element operations.
+ *
+ * @author dimcho.nedev
+ */
+public class UiElementRevalidationTest {
+    private static final int TEST_PASSKEY = 0;
+
+    private static final String TEST_DEVICE_ID = "test_device_id";
+
+    private ClientDispatcher dispatcherMock;
+
+    private DeviceCommunicator communicator;
+
+    private AccessibilityElementUtils elementUtils;
+
+    private AccessibilityElement properties;
+
+    @Before
+    public void setUp() throws Exception {
+        dispatcherMock = mock(ClientDispatcher.class);
+        when(dispatcherMock.route(anyString(), anyLong(), eq(RoutingAction.GESTURE_TAP), anyVararg())).thenReturn(true);
+        when(dispatcherMock.route(anyString(),
+                                  anyLong(),
+                                  eq(RoutingAction.PRESS_HARDWARE_BUTTON),
+                                  anyVararg())).thenReturn(true);
+
+        communicator = new DeviceCommunicator(TEST_PASSKEY, TEST_DEVICE_ID);
+        Field dispatcher = DeviceCommunicator.class.getDeclaredField("dispatcher");
+        dispatcher.setAccessible(true);
+        dispatcher.set(communicator, dispatcherMock);
+        communicator.setPostActionWait(PostActionWaitPolicy.NONE, 0);
+
+        elementUtils = new AccessibilityElementUtils(communicator);
+        properties = spy(new AccessibilityElement());
+        doReturn(new Bounds(new Point(0, 0), new Point(100, 100))).when(properties).getBounds();
+    }
+
+    @Test
+    public void testFreshElementIsNotRevalidated() throws Exception {
+        UiElement element = new AccessibilityUiElement(properties, elementUtils, communicator);
+
+        element.tap();
+
+        verifyPresenceChecks(0);
+    }
+
+    @Test
+    public void testFreshElementIsNotRevalidatedAfterReadOnlyActions() throws Exception {
+        UiElement element = new AccessibilityUiElement(properties, elementUtils, communicator);
+
+        // a post-action wait of the previous operation and a logcat poll, which can not change the screen
+        communicator.sendAction(RoutingAction.WAIT_FOR_WINDOW_UPDATE, null, 100);
+        communicator.sendAction(RoutingAction.GET_LOGCAT_BUFFER, TEST_DEVICE_ID);
+        element.tap();
+
+        verifyPresenceChecks(0);
+    }
+
+    @Test
+    public void testElementIsRevalidatedAfterAnotherOperation() throws Exception {
+        stubPresence(true);
+        UiElement element = new AccessibilityUiElement(properties, elementUtils, communicator);
+
+        element.tap();
+        element.tap();
+
+        verifyPresenceChecks(1);
+    }
+
+    @Test
+    public void testElementIsRevalidatedAfterDeviceAction() throws Exception {
+        stubPresence(true);
+        Device device = new Device(communicator);
+        UiElement element = new AccessibilityUiElement(properties, elementUtils, communicator);
+
+        device.pressButton(HardwareButton.BACK);
+        element.tap();
+
+        verifyPresenceChecks(1);
+    }
+
+    @Test(expected = StaleElementReferenceException.class)
+    public void testStaleElementAfterDeviceAction() throws Exception {
+        stubPresence(false);
+        Device device = new Device(communicator);
+        UiElement element = new AccessibilityUiElement(properties, elementUtils, communicator);
+
+        device.pressButton(HardwareButton.BACK);
+        element.tap();
+    }
+
+    @Test(expected = StaleElementReferenceException.class)
+    public void testStaleElementAfterAnotherOperation() throws Exception {
+        stubPresence(false);
+        UiElement element = new AccessibilityUiElement(properties, elementUtils, communicator);
+        UiElement otherElement = new AccessibilityUiElement(properties, elementUtils, communicator);
+
+        otherElement.tap();
+        element.tap();
+    }
+
+    @Test
+    public void testRevalidatedElementIsNotRevalidatedAgain() throws Exception {
+        stubPresence(true);
+        UiElement element = new AccessibilityUiElement(properties, elementUtils, communicator);
+        communicator.sendAction(RoutingAction.PRESS_HARDWARE_BUTTON, 4);
+
+        element.revalidate();
+        element.tap();
+
+        verifyPresenceChecks(1);
+    }
+
+    private void stubPresence(boolean isPresent) throws Exception {
+        when(dispatcherMock.route(anyString(),
+                                  anyLong(),
+                                  eq(RoutingAction.CHECK_ELEMENT_PRESENCE),
+                                  anyVararg())).thenReturn(isPresent);
+    }
+
+    private void verifyPresenceChecks(int count) throws Exception {
+        verify(dispatcherMock, times(count)).route(anyString(),
+                                                   anyLong(),
+                                                   eq(RoutingAction.CHECK_ELEMENT_PRESENCE),
+                                                   anyVararg());
+    }
+}
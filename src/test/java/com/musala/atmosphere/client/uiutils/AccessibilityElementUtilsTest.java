@@ -0,0 +1,130 @@
+// This file is part of the ATMOSPHERE mobile testing framework.
+// Copyright (C) 2016 MusalaSoft
+//
+// ATMOSPHERE is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// ATMOSPHERE is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with ATMOSPHERE.  If not, see <http://www.gnu.org/licenses/>.
+
+package com.musala.atmosphere.client.uiutils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.musala.atmosphere.client.AccessibilityUiElement;
+import com.musala.atmosphere.client.DeviceCommunicator;
+import com.musala.atmosphere.client.UiElement;
+import com.musala.atmosphere.client.util.ConfigurationPropertiesLoader;
+import com.musala.atmosphere.commons.RoutingAction;
+import com.musala.atmosphere.commons.exceptions.UiElementFetchingException;
+import com.musala.atmosphere.commons.ui.selector.UiElementSelector;
+import com.musala.atmosphere.commons.ui.tree.AccessibilityElement;
+
+/**
+ * Tests {@link AccessibilityElementUtils}
+ *
+ * @author dimcho.nedev
+ */
+public class AccessibilityElementUtilsTest {
+    private static final int TEST_IMPLICIT_WAIT_TIMEOUT = 1000;
+
+    private DeviceCommunicator communicatorMock;
+
+    private AccessibilityElementUtils elementUtils;
+
+    private UiElementSelector selector;
+
+    @Before
+    public void setUp() {
+        ConfigurationPropertiesLoader.loadImplicitWait();
+        ConfigurationPropertiesLoader.setImplicitWaitTimeout(TEST_IMPLICIT_WAIT_TIMEOUT);
+
+        communicatorMock = mock(DeviceCommunicator.class);
+        elementUtils = new AccessibilityElementUtils(communicatorMock);
+        selector = new UiElementSelector();
+    }
+
+    @After
+    public void tearDown() {
+        ConfigurationPropertiesLoader.setImplicitWaitTimeout(0);
+    }
+
+    @Test
+    public void testPresentElementsAreFetchedWithoutWaiting() throws Exception {
+        when(communicatorMock.sendAction(eq(RoutingAction.GET_UI_ELEMENTS),
+                                         any(),
+                                         anyBoolean())).thenReturn(Arrays.asList(new AccessibilityElement()));
+
+        List<UiElement> elements = elementUtils.getElements(selector, true);
+
+        assertEquals("Unexpected number of found elements.", 1, elements.size());
+        verify(communicatorMock, never()).sendAction(eq(RoutingAction.WAIT_FOR_EXISTS), any(), anyInt());
+    }
+
+    @Test
+    public void testMissingElementsAreFetchedAfterImplicitWait() throws Exception {
+        when(communicatorMock.sendAction(eq(RoutingAction.GET_UI_ELEMENTS),
+                                         any(),
+                                         anyBoolean())).thenReturn(new ArrayList<AccessibilityElement>(),
+                                                                   Arrays.asList(new AccessibilityElement()));
+        when(communicatorMock.sendAction(eq(RoutingAction.WAIT_FOR_EXISTS), any(), anyInt())).thenReturn(true);
+
+        List<UiElement> elements = elementUtils.getElements(selector, true);
+
+        assertEquals("Unexpected number of found elements.", 1, elements.size());
+        verify(communicatorMock, times(2)).sendAction(eq(RoutingAction.GET_UI_ELEMENTS), any(), anyBoolean());
+    }
+
+    @Test(expected = UiElementFetchingException.class)
+    public void testImplicitWaitTimeout() throws Exception {
+        when(communicatorMock.sendAction(eq(RoutingAction.GET_UI_ELEMENTS),
+                                         any(),
+                                         anyBoolean())).thenReturn(new ArrayList<AccessibilityElement>());
+        when(communicatorMock.sendAction(eq(RoutingAction.WAIT_FOR_EXISTS), any(), anyInt())).thenReturn(false);
+
+        elementUtils.getElements(selector, true);
+    }
+
+    @Test
+    public void testWrapAccessibilityElements() {
+        List<AccessibilityElement> accessibilityElements = Arrays.asList(new AccessibilityElement(),
+                                                                         new AccessibilityElement());
+
+        List<UiElement> elements = elementUtils.wrapAccessibilityElements(accessibilityElements);
+
+        assertEquals("Unexpected number of wrapped elements.", accessibilityElements.size(), elements.size());
+        for (int i = 0; i < elements.size(); i++) {
+            assertTrue("Expected the elements to be wrapped in AccessibilityUiElement.",
+                       elements.get(i) instanceof AccessibilityUiElement);
+            assertSame("Expected the wrapped element to keep its properties.",
+                       accessibilityElements.get(i),
+                       elements.get(i).getProperties());
+        }
+    }
+}
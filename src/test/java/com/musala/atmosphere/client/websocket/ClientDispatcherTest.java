@@ -0,0 +1,280 @@
+// This file is part of the ATMOSPHERE mobile testing framework.
+// Copyright (C) 2016 MusalaSoft
+//
+// ATMOSPHERE is free software: you can redistribute it and/or modify
+// it under the terms of the GNU General Public License as published by
+// the Free Software Foundation, either version 3 of the License, or
+// (at your option) any later version.
+//
+// ATMOSPHERE is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+// GNU General Public License for more details.
+//
+// You should have received a copy of the GNU General Public License
+// along with ATMOSPHERE.  If not, see <http://www.gnu.org/licenses/>.
+
+package com.musala.atmosphere.client.websocket;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+
+import javax.websocket.RemoteEndpoint;
+import javax.websocket.SendHandler;
+import javax.websocket.Session;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.musala.atmosphere.client.exceptions.ServerConnectionFailedException;
+import com.musala.atmosphere.commons.RoutingAction;
+import com.musala.atmosphere.commons.cs.clientbuilder.DeviceAllocationInformation;
+import com.musala.atmosphere.commons.cs.deviceselection.DeviceSelector;
+import com.musala.atmosphere.commons.cs.deviceselection.DeviceSelectorBuilder;
+import com.musala.atmosphere.commons.exceptions.CommandFailedException;
+import com.musala.atmosphere.commons.exceptions.NoAvailableDeviceFoundException;
+import com.musala.atmosphere.commons.websocket.message.MessageAction;
+import com.musala.atmosphere.commons.websocket.message.ResponseMessage;
+
+/**
+ * Tests the request and response handling of the {@link ClientDispatcher}.
+ *
+ * @author dimcho.nedev
+ */
+public class ClientDispatcherTest {
+    private static final String TEST_SESSION_ID = "test_session";
+
+    private static final String TEST_DEVICE_ID = "test_device_id";
+
+    private static final long TEST_PASSKEY = 0;
+
+    // the identifier of the first request sent through a new dispatcher
+    private static final String FIRST_REQUEST_ID = TEST_SESSION_ID + "_1";
+
+    private static final int SHORT_WAIT_TIME = 50;
+
+    private static final int LONG_WAIT_TIME = 5000;
+
+    private static final long VERIFICATION_TIMEOUT = 5000;
+
+    private RemoteEndpoint.Basic basicRemoteMock;
+
+    private RemoteEndpoint.Async asyncRemoteMock;
+
+    private ClientDispatcher dispatcher;
+
+    private DeviceSelector deviceSelector;
+
+    private DeviceAllocationInformation deviceDescriptorMock;
+
+    @Before
+    public void setUp() throws Exception {
+        Session sessionMock = mock(Session.class);
+        when(sessionMock.getId()).thenReturn(TEST_SESSION_ID);
+        asyncRemoteMock = mock(RemoteEndpoint.Async.class);
+        when(sessionMock.getAsyncRemote()).thenReturn(asyncRemoteMock);
+        basicRemoteMock = mock(RemoteEndpoint.Basic.class);
+        when(sessionMock.getBasicRemote()).thenReturn(basicRemoteMock);
+
+        ClientDispatcher clientDispatcher = new ClientDispatcher();
+        Field session = ClientDispatcher.class.getDeclaredField("session");
+        session.setAccessible(true);
+        session.set(clientDispatcher, sessionMock);
+
+        dispatcher = spy(clientDispatcher);
+        doNothing().when(dispatcher).releaseDevice(any(DeviceAllocationInformation.class));
+
+        deviceSelector = new DeviceSelectorBuilder().serialNumber(TEST_DEVICE_ID).build();
+        deviceDescriptorMock = mock(DeviceAllocationInformation.class);
+    }
+
+    @Test
+    public void testAllocationInTime() throws Exception {
+        CompletableFuture<DeviceAllocationInformation> allocation = allocateDevice(LONG_WAIT_TIME);
+        dispatcher.onResponse(allocationResponse(FIRST_REQUEST_ID));
+
+        assertSame(deviceDescriptorMock, allocation.join());
+        verify(dispatcher, never()).releaseDevice(any(DeviceAllocationInformation.class));
+    }
+
+    @Test
+    public void testAllocationTimeoutFailsWithNoAvailableDevice() {
+        CompletableFuture<DeviceAllocationInformation> allocation = allocateDevice(SHORT_WAIT_TIME);
+
+        try {
+            allocation.join();
+            fail("Expected the allocation to time out.");
+        } catch (CompletionException e) {
+            assertTrue("Unexpected allocation failure: " + e.getCause(),
+                       e.getCause() instanceof NoAvailableDeviceFoundException);
+        }
+    }
+
+    @Test
+    public void testLateAllocationIsReleased() throws Exception {
+        CompletableFuture<DeviceAllocationInformation> allocation = allocateDevice(SHORT_WAIT_TIME);
+        try {
+            allocation.join();
+            fail("Expected the allocation to time out.");
+        } catch (CompletionException e) {
+            // the device is allocated by the Server after the client stopped waiting
+        }
+
+        dispatcher.onResponse(allocationResponse(FIRST_REQUEST_ID));
+
+        verify(dispatcher, timeout(VERIFICATION_TIMEOUT)).releaseDevice(deviceDescriptorMock);
+
+        // the blocking allocation abandons its request the same way
+        Field waitForDeviceTime = ClientDispatcher.class.getDeclaredField("waitForDeviceTime");
+        waitForDeviceTime.setAccessible(true);
+        waitForDeviceTime.set(dispatcher, SHORT_WAIT_TIME);
+
+        try {
+            dispatcher.getDeviceDescriptor(deviceSelector, 0);
+            fail("Expected the allocation to time out.");
+        } catch (NoAvailableDeviceFoundException e) {
+            // the device is allocated by the Server after the client stopped waiting
+        }
+
+        dispatcher.onResponse(allocationResponse(TEST_SESSION_ID + "_2"));
+
+        verify(dispatcher, timeout(VERIFICATION_TIMEOUT).times(2)).releaseDevice(deviceDescriptorMock);
+    }
+
+    @Test
+    public void testUnknownErrorResponseIsIgnored() throws Exception {
+        ResponseMessage responseMock = mock(ResponseMessage.class);
+        when(responseMock.getSessionId()).thenReturn(FIRST_REQUEST_ID);
+        when(responseMock.getMessageAction()).thenReturn(MessageAction.ERROR);
+
+        dispatcher.onResponse(responseMock);
+
+        Thread.sleep(SHORT_WAIT_TIME);
+        verify(dispatcher, never()).releaseDevice(any(DeviceAllocationInformation.class));
+    }
+
+    @Test
+    public void testResponsesAreMatchedByRequestId() {
+        CompletableFuture<Object> firstResult = routeAction(RoutingAction.GET_SCREENSHOT);
+        CompletableFuture<Object> secondResult = routeAction(RoutingAction.GET_SCREENSHOT);
+
+        // the responses of two identical requests arrive in reverse order
+        dispatcher.onResponse(actionResponse(TEST_SESSION_ID + "_2", "second"));
+        dispatcher.onResponse(actionResponse(FIRST_REQUEST_ID, "first"));
+
+        assertEquals("first", firstResult.join());
+        assertEquals("second", secondResult.join());
+    }
+
+    @Test
+    public void testAgentExceptionFailsResult() {
+        CommandFailedException agentException = new CommandFailedException();
+        ResponseMessage responseMock = actionResponse(FIRST_REQUEST_ID, null);
+        when(responseMock.getException()).thenReturn(agentException);
+
+        CompletableFuture<Object> result = routeAction(RoutingAction.GET_SCREENSHOT);
+        dispatcher.onResponse(responseMock);
+
+        try {
+            result.join();
+            fail("Expected the action to fail.");
+        } catch (CompletionException e) {
+            assertSame(agentException, e.getCause());
+        }
+    }
+
+    @Test
+    public void testResultTimeout() throws Exception {
+        Field waitForResponseTime = ClientDispatcher.class.getDeclaredField("waitForResponseTime");
+        waitForResponseTime.setAccessible(true);
+        waitForResponseTime.set(dispatcher, SHORT_WAIT_TIME);
+
+        CompletableFuture<Object> result = routeAction(RoutingAction.GET_SCREENSHOT);
+
+        try {
+            result.join();
+            fail("Expected the action to time out.");
+        } catch (CompletionException e) {
+            assertTrue("Unexpected action failure: " + e.getCause(), e.getCause() instanceof TimeoutException);
+        }
+
+        // a response that arrives after the timeout is dropped
+        dispatcher.onResponse(actionResponse(FIRST_REQUEST_ID, "late"));
+    }
+
+    @Test
+    public void testResponseBeforeWaitingIsReceived() throws Exception {
+        // the response arrives while the request is still being sent, before the sender starts waiting for it
+        doAnswer(invocation -> {
+            dispatcher.onResponse(actionResponse(FIRST_REQUEST_ID, "result"));
+            return null;
+        }).when(basicRemoteMock).sendText(anyString());
+
+        long start = System.currentTimeMillis();
+        Object result = dispatcher.route(TEST_DEVICE_ID, TEST_PASSKEY, RoutingAction.GET_SCREENSHOT);
+
+        assertEquals("result", result);
+        assertTrue("The response was received only after the wait timed out.",
+                   System.currentTimeMillis() - start < VERIFICATION_TIMEOUT);
+    }
+
+    @Test
+    public void testSendingOnClosedSessionFailsResult() {
+        doThrow(new IllegalStateException("closed")).when(asyncRemoteMock).sendText(anyString(),
+                                                                                    any(SendHandler.class));
+
+        CompletableFuture<Object> result = routeAction(RoutingAction.GET_SCREENSHOT);
+
+        try {
+            result.join();
+            fail("Expected the action to fail.");
+        } catch (CompletionException e) {
+            assertTrue("Unexpected action failure: " + e.getCause(),
+                       e.getCause() instanceof ServerConnectionFailedException);
+        }
+    }
+
+    private CompletableFuture<Object> routeAction(RoutingAction action) {
+        return dispatcher.routeWithFuture(TEST_DEVICE_ID, TEST_PASSKEY, action);
+    }
+
+    private CompletableFuture<DeviceAllocationInformation> allocateDevice(int maxWaitTime) {
+        return dispatcher.getDeviceDescriptorAsync(deviceSelector, maxWaitTime);
+    }
+
+    private ResponseMessage actionResponse(String requestId, Object data) {
+        ResponseMessage responseMock = mock(ResponseMessage.class);
+        when(responseMock.getSessionId()).thenReturn(requestId);
+        when(responseMock.getMessageAction()).thenReturn(MessageAction.ROUTING_ACTION);
+        when(responseMock.getData()).thenReturn(data);
+
+        return responseMock;
+    }
+
+    private ResponseMessage allocationResponse(String requestId) {
+        ResponseMessage responseMock = mock(ResponseMessage.class);
+        when(responseMock.getSessionId()).thenReturn(requestId);
+        when(responseMock.getMessageAction()).thenReturn(MessageAction.DEVICE_ALLOCATION_INFORMATION);
+        when(responseMock.getData()).thenReturn(deviceDescriptorMock);
+
+        return responseMock;
+    }
+}